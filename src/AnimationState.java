@@ -0,0 +1,127 @@
+import org.newdawn.slick.Animation;
+import org.newdawn.slick.Image;
+
+import java.util.ArrayList;
+
+/**
+ * The AnimationState class is the animation state of one entity, the animations it has, which
+ * one is playing and if they are frozen. Every animation keeps its own playhead, moved forward by
+ * the game ticks, while the frames are shared with every other entity of the same type and name.
+ * The idle frame of every direction, the frame shown while frozen, is picked once when the state
+ * is created, so drawing never creates any objects.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class AnimationState {
+    // Indexes of the animations of a character, in the order Tools.createAnimation creates them
+    public static final int UP = 0;
+    public static final int DOWN = 1;
+    public static final int LEFT = 2;
+    public static final int RIGHT = 3;
+
+    private ArrayList<Animation> animations;
+    // The first frame of every animation, null for animations without frames (if headless)
+    private Image[] idleFrames;
+    // Index of the animation that is playing
+    private int current;
+    private boolean frozen;
+
+    /**
+     * Constructor of the AnimationState class.
+     *
+     * @param animations The animations of the entity, from Tools.createAnimation.
+     */
+    public AnimationState(ArrayList<Animation> animations) {
+        this.animations = animations;
+        idleFrames = new Image[animations.size()];
+        for (int i = 0; i < animations.size(); i++) {
+            if (animations.get(i).getFrameCount() > 0) {
+                idleFrames[i] = animations.get(i).getImage(0);
+            }
+        }
+        current = 0;
+        frozen = false;
+    }
+
+    /**
+     * Method used to get the index of the animation of a direction.
+     *
+     * @param direction The direction, "up", "down", "left" or "right".
+     * @param defaultIndex The index to use for any other direction.
+     * @return The index of the animation.
+     */
+    public static int getDirectionIndex(String direction, int defaultIndex) {
+        switch (direction) {
+            case "up":
+                return UP;
+            case "down":
+                return DOWN;
+            case "left":
+                return LEFT;
+            case "right":
+                return RIGHT;
+            default:
+                return defaultIndex;
+        }
+    }
+
+    /**
+     * Method used to choose the animation that plays. The other animations keep their playheads.
+     *
+     * @param index Index of the animation, i.e DOWN.
+     */
+    public void play(int index) { current = index; }
+
+    /**
+     * Method used to move the playing animation forward, once per tick. Nothing moves while the
+     * animations are frozen.
+     *
+     * @param delta Length of the tick (ms).
+     */
+    public void update(int delta) {
+        Animation animation = animations.get(current);
+        if (!frozen && animation.getFrameCount() > 0) {
+            animation.update(delta);
+        }
+    }
+
+    /**
+     * Method used to get the frame to draw, the current frame of the playing animation, or its
+     * idle frame if frozen.
+     *
+     * @return The frame to draw, null if the animation doesn't have any frames.
+     */
+    public Image getFrame() {
+        Animation animation = animations.get(current);
+        if (frozen || animation.getFrameCount() == 0) {
+            return idleFrames[current];
+        }
+        return animation.getCurrentFrame();
+    }
+
+    /**
+     * Method used to get the idle frame of an animation, the frame shown while frozen.
+     *
+     * @param index Index of the animation, i.e DOWN.
+     * @return The idle frame, null if the animation doesn't have any frames.
+     */
+    public Image getIdleFrame(int index) { return idleFrames[index]; }
+
+    /**
+     * @return True if the animations are frozen.
+     */
+    public boolean isFrozen() { return frozen; }
+
+    /**
+     * Method used to freeze or unfreeze the animations.
+     *
+     * @param value True to freeze the animations.
+     */
+    public void setFrozen(boolean value) { frozen = value; }
+
+    /**
+     * @return The animations, usually up/down/left/right/default.
+     */
+    public ArrayList<Animation> getAnimations() { return animations; }
+}
@@ -0,0 +1,208 @@
+import org.newdawn.slick.Image;
+import org.newdawn.slick.SlickException;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * The AssetCache class shares the frames of animations between everything that uses them. The
+ * frames of an animation are loaded the first time they are asked for and are then handed out to
+ * every entity with the same type and name, so ten goblins only load the goblin images once. The
+ * frames are reference counted and their textures are released when nothing uses them anymore.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class AssetCache {
+    /**
+     * The frames of one animation and how many animations use them.
+     */
+    private static class FrameSet {
+        private Image[] frames;
+        // The atlas sheet every frame is cut from, null for frames with a texture of their own
+        private String[] sheets;
+        private int references;
+    }
+
+    // The loaded frame sets, by "type:name:keyword", and single images by "image:path"
+    private static HashMap<String, FrameSet> frameSets = new HashMap<>();
+
+    // Images uploaded ahead of time by the AssetLoader that no one has asked for yet, by path
+    private static HashMap<String, Image> preloaded = new HashMap<>();
+
+    /**
+     * Method used to get the frames of an animation, loading them if no one uses them yet. Every
+     * call must be matched by a call to release.
+     *
+     * @param key Key of the frames, "type:name:keyword".
+     * @param pathPrefix Path to the frame files without the frame number, the frames are read
+     *                   from [pathPrefix]-1.png until a file doesn't exist.
+     * @return The frames (empty if headless).
+     * @throws SlickException If a frame can't be loaded.
+     */
+    public static Image[] acquire(String key, String pathPrefix) throws SlickException {
+        FrameSet frameSet = frameSets.get(key);
+        if (frameSet == null) {
+            frameSet = new FrameSet();
+            loadFrames(frameSet, pathPrefix);
+            frameSets.put(key, frameSet);
+        }
+        frameSet.references++;
+        return frameSet.frames;
+    }
+
+    /**
+     * Method used to give back frames from acquire. When the last user gives them back the
+     * textures are destroyed, frames cut from the atlas give back their sheet instead.
+     *
+     * @param key Key of the frames, "type:name:keyword".
+     * @throws SlickException If a texture can't be destroyed.
+     */
+    public static void release(String key) throws SlickException {
+        FrameSet frameSet = frameSets.get(key);
+        if (frameSet == null) {
+            return;
+        }
+        frameSet.references--;
+        if (frameSet.references <= 0) {
+            frameSets.remove(key);
+            for (int i = 0; i < frameSet.frames.length; i++) {
+                if (frameSet.sheets != null && frameSet.sheets[i] != null) {
+                    releaseImage(frameSet.sheets[i]);
+                } else {
+                    frameSet.frames[i].destroy();
+                }
+            }
+        }
+    }
+
+    /**
+     * Method used to get a single image, like the tile set of a map, loading it if no one uses
+     * it yet. Every call must be matched by a call to releaseImage.
+     *
+     * @param path Path to the image file.
+     * @param filter The filter used when the image is scaled, i.e Image.FILTER_NEAREST.
+     * @return The image.
+     * @throws SlickException If the image can't be loaded.
+     */
+    public static Image acquireImage(String path, int filter) throws SlickException {
+        String key = "image:" + new File(path).getPath();
+        FrameSet frameSet = frameSets.get(key);
+        if (frameSet == null) {
+            frameSet = new FrameSet();
+            frameSet.frames = new Image[] {loadImage(path, filter)};
+            frameSets.put(key, frameSet);
+        }
+        frameSet.references++;
+        return frameSet.frames[0];
+    }
+
+    /**
+     * Method used to give back an image from acquireImage.
+     *
+     * @param path Path to the image file.
+     * @throws SlickException If the texture can't be destroyed.
+     */
+    public static void releaseImage(String path) throws SlickException {
+        release("image:" + new File(path).getPath());
+    }
+
+    /**
+     * Method used by the AssetLoader to hand over an image it has uploaded, so it doesn't have
+     * to be loaded again when it is asked for.
+     *
+     * @param path Path to the image file.
+     * @param image The uploaded image.
+     */
+    public static void addPreloaded(String path, Image image) {
+        preloaded.put(new File(path).getPath(), image);
+    }
+
+    /**
+     * Method used to destroy the images uploaded by the AssetLoader that no one has asked for.
+     * Done when nothing more will be asked for the first time, as they would never be released.
+     *
+     * @throws SlickException If a texture can't be destroyed.
+     */
+    public static void clearPreloaded() throws SlickException {
+        for (Image image : preloaded.values()) {
+            image.destroy();
+        }
+        preloaded.clear();
+    }
+
+    /**
+     * @return The number of frame sets currently loaded.
+     */
+    public static int getLoadedCount() { return frameSets.size(); }
+
+    /**
+     * @return The number of frames currently loaded.
+     */
+    public static int getLoadedFrameCount() {
+        int count = 0;
+        for (FrameSet frameSet : frameSets.values()) {
+            count += frameSet.frames.length;
+        }
+        return count;
+    }
+
+    /**
+     * Loads the frames of an animation, [pathPrefix]-1.png and onwards. The number of frames is
+     * taken from the asset manifest, animations missing from it are loaded until a file doesn't
+     * exist. Frames in the atlas are cut from their sheet, the rest are loaded from their files.
+     *
+     * @param frameSet The frame set to load the frames into (empty if headless).
+     * @param pathPrefix Path to the frame files without the frame number.
+     * @throws SlickException If a frame can't be loaded.
+     */
+    private static void loadFrames(FrameSet frameSet, String pathPrefix) throws SlickException {
+        ArrayList<String> paths = new ArrayList<>();
+        // Without a display there is nothing to load the frames into
+        if (!Tools.isHeadless()) {
+            int[] durations = AssetManifest.getFrameDurations(pathPrefix);
+            if (durations != null) {
+                for (int i = 1; i <= durations.length; i++) {
+                    paths.add(pathPrefix + "-" + i + ".png");
+                }
+            } else {
+                int i = 1;
+                while (new File(pathPrefix + "-" + i + ".png").exists()) {
+                    paths.add(pathPrefix + "-" + i + ".png");
+                    i++;
+                }
+            }
+        }
+
+        frameSet.frames = new Image[paths.size()];
+        frameSet.sheets = new String[paths.size()];
+        for (int i = 0; i < paths.size(); i++) {
+            Atlas.Region region = Atlas.getRegion(paths.get(i));
+            if (region != null) {
+                Image sheet = acquireImage(region.getSheetPath(), Image.FILTER_LINEAR);
+                frameSet.frames[i] = sheet.getSubImage(region.getX(), region.getY(),
+                        region.getWidth(), region.getHeight());
+                frameSet.sheets[i] = region.getSheetPath();
+            } else {
+                frameSet.frames[i] = loadImage(paths.get(i), Image.FILTER_LINEAR);
+            }
+        }
+    }
+
+    /**
+     * Loads an image, unless the AssetLoader has already uploaded it.
+     *
+     * @param path Path to the image file.
+     * @param filter The filter used when the image is scaled.
+     * @return The image.
+     * @throws SlickException If the image can't be loaded.
+     */
+    private static Image loadImage(String path, int filter) throws SlickException {
+        Image image = preloaded.remove(new File(path).getPath());
+        if (image == null) {
+            image = new Image(path, false, filter);
+        }
+        return image;
+    }
+}
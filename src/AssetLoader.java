@@ -0,0 +1,166 @@
+import org.newdawn.slick.Image;
+import org.newdawn.slick.SlickException;
+import org.newdawn.slick.opengl.ImageDataFactory;
+import org.newdawn.slick.opengl.LoadableImageData;
+import org.newdawn.slick.util.ResourceLoader;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The AssetLoader class loads the images of the game while the start screen is up. The image
+ * files are decoded on a pool of worker threads, one per processor. Only the upload to the
+ * graphics card has to happen on the thread that owns the OpenGL context, and it is done a
+ * little at a time, every frame, so the start screen keeps drawing and can show the progress.
+ * The uploaded images are handed to the AssetCache, which gives them out when they are asked for.
+ * Only the frames in the asset manifest and the tile sets of the rooms are loaded.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class AssetLoader {
+    /**
+     * An image that is being decoded, or is decoded and waiting to be uploaded.
+     */
+    private static class PendingImage {
+        private String path;
+        private int filter;
+        private Future<LoadableImageData> data;
+    }
+
+    private ExecutorService executor;
+    private ArrayList<PendingImage> pending;
+    private int total;
+    private int uploaded;
+
+    /**
+     * Constructor of the AssetLoader class, starts the worker threads.
+     */
+    public AssetLoader() {
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "asset-loader");
+                    // The loader must not keep the game running when the window is closed
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pending = new ArrayList<>();
+        total = 0;
+        uploaded = 0;
+    }
+
+    /**
+     * Method used to start decoding an image on the worker threads.
+     *
+     * @param path Path to the image file.
+     * @param filter The filter used when the image is scaled, i.e Image.FILTER_NEAREST.
+     */
+    public void decode(String path, int filter) {
+        PendingImage image = new PendingImage();
+        image.path = path;
+        image.filter = filter;
+        image.data = executor.submit(() -> {
+            LoadableImageData data = ImageDataFactory.getImageDataFor(path);
+            InputStream in = new BufferedInputStream(ResourceLoader.getResourceAsStream(path));
+            try {
+                data.loadImage(in, false, null);
+            } finally {
+                in.close();
+            }
+            return data;
+        });
+        pending.add(image);
+        total++;
+    }
+
+    /**
+     * Method used to start decoding the frames of every animation in the asset manifest. Frames
+     * in the atlas are loaded with their sheet, every sheet is only decoded once.
+     */
+    public void decodeAnimations() {
+        for (String pathPrefix : AssetManifest.getAnimationPaths()) {
+            int frames = AssetManifest.getFrameDurations(pathPrefix).length;
+            for (int i = 1; i <= frames; i++) {
+                String path = pathPrefix + "-" + i + ".png";
+                if (Atlas.getRegion(path) == null) {
+                    decode(path, Image.FILTER_LINEAR);
+                }
+            }
+        }
+        for (String sheetPath : Atlas.getSheetPaths()) {
+            decode(sheetPath, Image.FILTER_LINEAR);
+        }
+    }
+
+    /**
+     * Method used to start decoding the tile set images of rooms, every image is only decoded
+     * once even if several rooms use it.
+     *
+     * @param roomNames Names of the rooms.
+     * @throws SlickException If a room can't be read.
+     */
+    public void decodeRooms(ArrayList<String> roomNames) throws SlickException {
+        HashSet<String> imagePaths = new HashSet<>();
+        for (String roomName : roomNames) {
+            for (MapData.TileSetData tileSet : RoomData.load(roomName).getMap().getTileSets()) {
+                if (imagePaths.add(new File(tileSet.getImagePath()).getPath())) {
+                    decode(tileSet.getImagePath(), Image.FILTER_NEAREST);
+                }
+            }
+        }
+    }
+
+    /**
+     * Method used to upload the images that are decoded, until the time is up. Must be called on
+     * the thread that owns the OpenGL context, usually once per frame.
+     *
+     * @param timeLimit How long the uploading may take (ms), at least one image is uploaded if
+     *                  one is ready.
+     * @throws SlickException If an image couldn't be decoded.
+     */
+    public void uploadSlice(int timeLimit) throws SlickException {
+        long end = System.nanoTime() + timeLimit * 1000000L;
+        int i = 0;
+        while (i < pending.size() && System.nanoTime() < end) {
+            PendingImage image = pending.get(i);
+            if (!image.data.isDone()) {
+                i++;
+                continue;
+            }
+            pending.remove(i);
+            try {
+                AssetCache.addPreloaded(image.path, new Image(image.data.get(), image.filter));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new SlickException("Interrupted while loading " + image.path, ex);
+            } catch (ExecutionException ex) {
+                throw new SlickException("Failed to load " + image.path, ex.getCause());
+            }
+            uploaded++;
+        }
+    }
+
+    /**
+     * @return How much of the loading is done (0 to 1).
+     */
+    public float getProgress() {
+        return total == 0 ? 1 : (float)uploaded / total;
+    }
+
+    /**
+     * @return True if every image is uploaded.
+     */
+    public boolean isDone() { return pending.isEmpty(); }
+
+    /**
+     * Method used to stop the worker threads, when there is nothing more to load.
+     */
+    public void shutdown() { executor.shutdown(); }
+}
@@ -0,0 +1,76 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Set;
+
+/**
+ * The AssetManifest class knows the frames of every animation in the game, read once from the
+ * manifest file generated by ManifestGenerator. Every line of the file is the path of an
+ * animation without the frame number, followed by how long every frame is shown (ms):
+ * "res/characters/goblin/up 100 100 100" is the frames up-1.png to up-3.png of the goblin.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class AssetManifest {
+    public static final String MANIFEST_PATH = "res/assets.txt";
+
+    // How long a frame is shown if nothing else is given (ms)
+    public static final int DEFAULT_FRAME_DURATION = 100;
+
+    // The frame durations of every animation, by path without the frame number
+    private static HashMap<String, int[]> animations = null;
+
+    /**
+     * Method used to get the frame durations of an animation. The number of durations is the
+     * number of frames, the frames are [pathPrefix]-1.png and onwards.
+     *
+     * @param pathPrefix Path to the frame files without the frame number.
+     * @return The duration of every frame (ms), or null if the animation isn't in the manifest.
+     */
+    public static int[] getFrameDurations(String pathPrefix) {
+        if (animations == null) {
+            animations = read(MANIFEST_PATH);
+        }
+        return animations.get(pathPrefix);
+    }
+
+    /**
+     * @return The paths of every animation in the manifest, without the frame number.
+     */
+    public static Set<String> getAnimationPaths() {
+        if (animations == null) {
+            animations = read(MANIFEST_PATH);
+        }
+        return animations.keySet();
+    }
+
+    /**
+     * Method used to read a manifest file.
+     *
+     * @param filePath Path of the manifest file.
+     * @return The frame durations of every animation, by path without the frame number (empty
+     * if there is no manifest).
+     */
+    public static HashMap<String, int[]> read(String filePath) {
+        HashMap<String, int[]> result = new HashMap<>();
+        ArrayList<String> lines = Tools.readFileToArray(filePath);
+        if (lines == null) {
+            System.out.println("No asset manifest at " + filePath + ", looking for the files");
+            return result;
+        }
+        for (String line : lines) {
+            // Lines starting with # are comments
+            line = line.trim();
+            if (line.equals("") || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\\s+");
+            int[] durations = new int[parts.length - 1];
+            for (int i = 0; i < durations.length; i++) {
+                durations[i] = Integer.parseInt(parts[i + 1]);
+            }
+            result.put(parts[0], durations);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,127 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The Atlas class knows where the animation frames are in the texture atlas built by
+ * AtlasBuilder. The atlas is a few large sheets with many frames each, so drawing a room full of
+ * characters binds a few textures instead of one per frame. It is read once from the atlas file,
+ * where every line is a frame, the sheet it is in and where: "[frame] [sheet] [x] [y] [width]
+ * [height]". Frames that aren't in the atlas are loaded from their own files.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class Atlas {
+    public static final String ATLAS_FOLDER = "res/atlas";
+    public static final String ATLAS_PATH = ATLAS_FOLDER + "/atlas.txt";
+
+    /**
+     * Where a frame is in the atlas.
+     */
+    public static class Region {
+        private String sheetPath;
+        private int x;
+        private int y;
+        private int width;
+        private int height;
+
+        /**
+         * Constructor of the Region class.
+         *
+         * @param sheetPath Path to the sheet the frame is in.
+         * @param x X location of the frame in the sheet (px).
+         * @param y Y location of the frame in the sheet (px).
+         * @param width Width of the frame (px).
+         * @param height Height of the frame (px).
+         */
+        public Region(String sheetPath, int x, int y, int width, int height) {
+            this.sheetPath = sheetPath;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+
+        /**
+         * @return Path to the sheet the frame is in.
+         */
+        public String getSheetPath() { return sheetPath; }
+
+        /**
+         * @return X location of the frame in the sheet (px).
+         */
+        public int getX() { return x; }
+
+        /**
+         * @return Y location of the frame in the sheet (px).
+         */
+        public int getY() { return y; }
+
+        /**
+         * @return Width of the frame (px).
+         */
+        public int getWidth() { return width; }
+
+        /**
+         * @return Height of the frame (px).
+         */
+        public int getHeight() { return height; }
+    }
+
+    // The frames in the atlas, by the path of the frame file
+    private static HashMap<String, Region> regions = null;
+
+    /**
+     * @param framePath Path to the frame file, i.e "res/characters/goblin/up-1.png".
+     * @return Where the frame is in the atlas, or null if it isn't in the atlas.
+     */
+    public static Region getRegion(String framePath) {
+        if (regions == null) {
+            regions = read(ATLAS_PATH);
+        }
+        return regions.get(framePath);
+    }
+
+    /**
+     * @return The paths of the sheets of the atlas, in the order of the atlas file.
+     */
+    public static Set<String> getSheetPaths() {
+        if (regions == null) {
+            regions = read(ATLAS_PATH);
+        }
+        Set<String> sheetPaths = new LinkedHashSet<>();
+        for (Region region : regions.values()) {
+            sheetPaths.add(region.sheetPath);
+        }
+        return sheetPaths;
+    }
+
+    /**
+     * Method used to read an atlas file.
+     *
+     * @param filePath Path of the atlas file.
+     * @return The frames in the atlas, by the path of the frame file (empty if there is no
+     * atlas).
+     */
+    public static HashMap<String, Region> read(String filePath) {
+        HashMap<String, Region> result = new HashMap<>();
+        ArrayList<String> lines = Tools.readFileToArray(filePath);
+        if (lines == null) {
+            return result;
+        }
+        for (String line : lines) {
+            // Lines starting with # are comments
+            line = line.trim();
+            if (line.equals("") || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\\s+");
+            result.put(parts[0], new Region(parts[1], Integer.parseInt(parts[2]),
+                    Integer.parseInt(parts[3]), Integer.parseInt(parts[4]),
+                    Integer.parseInt(parts[5])));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,167 @@
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+
+/**
+ * The AtlasBuilder class packs the frames of every animation in the asset manifest into a few
+ * large sheets, the texture atlas. The frames are sorted by height and placed in rows, a sheet
+ * is filled before the next one is started. Every frame gets a 1 px border copied from its own
+ * edge, so the linear filter never blends in the frame next to it. Run it again after running
+ * ManifestGenerator, frames that are missing from the atlas are loaded from their own files.
+ *
+ * Usage: java AtlasBuilder
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class AtlasBuilder {
+    // Largest size of a sheet (px), small enough for any graphics card
+    private static final int SHEET_SIZE = 1024;
+    // Width of the border copied around every frame (px)
+    private static final int BORDER = 1;
+    private static final String REPORT_PATH = Atlas.ATLAS_FOLDER + "/report.txt";
+
+    /**
+     * A frame being packed.
+     */
+    private static class Frame {
+        private String path;
+        private BufferedImage image;
+        private int sheet;
+        private int x;
+        private int y;
+    }
+
+    /**
+     * The main method, builds the atlas.
+     *
+     * @param args Command-line arguments, not used.
+     * @throws IOException If a frame can't be read or the atlas can't be written.
+     */
+    public static void main(String[] args) throws IOException {
+        ArrayList<Frame> frames = new ArrayList<>();
+        for (String pathPrefix : AssetManifest.getAnimationPaths()) {
+            int frameCount = AssetManifest.getFrameDurations(pathPrefix).length;
+            for (int i = 1; i <= frameCount; i++) {
+                Frame frame = new Frame();
+                frame.path = pathPrefix + "-" + i + ".png";
+                frame.image = ImageIO.read(new File(frame.path));
+                frames.add(frame);
+            }
+        }
+
+        // Tallest first, so the frames in a row waste as little space as possible
+        frames.sort((a, b) -> a.image.getHeight() != b.image.getHeight()
+                ? b.image.getHeight() - a.image.getHeight()
+                : b.image.getWidth() - a.image.getWidth());
+
+        ArrayList<Frame> tooLarge = new ArrayList<>();
+        ArrayList<Integer> sheetHeights = new ArrayList<>();
+        int sheet = 0;
+        int x = 0;
+        int y = 0;
+        int rowHeight = 0;
+        for (Frame frame : frames) {
+            int width = frame.image.getWidth() + 2 * BORDER;
+            int height = frame.image.getHeight() + 2 * BORDER;
+            if (width > SHEET_SIZE || height > SHEET_SIZE) {
+                tooLarge.add(frame);
+                frame.sheet = -1;
+                continue;
+            }
+            // Next row, or next sheet if the row doesn't fit
+            if (x + width > SHEET_SIZE) {
+                x = 0;
+                y += rowHeight;
+                rowHeight = 0;
+            }
+            if (y + height > SHEET_SIZE) {
+                sheetHeights.add(y);
+                sheet++;
+                x = 0;
+                y = 0;
+            }
+            frame.sheet = sheet;
+            frame.x = x + BORDER;
+            frame.y = y + BORDER;
+            x += width;
+            rowHeight = Math.max(rowHeight, height);
+        }
+        if (frames.size() > tooLarge.size()) {
+            sheetHeights.add(y + rowHeight);
+        }
+
+        new File(Atlas.ATLAS_FOLDER).mkdirs();
+        // Remove the sheets of the old atlas, it may have had more of them
+        File[] oldFiles = new File(Atlas.ATLAS_FOLDER).listFiles();
+        for (File file : oldFiles) {
+            if (file.getName().startsWith("atlas-") && file.getName().endsWith(".png")) {
+                file.delete();
+            }
+        }
+
+        PrintWriter atlas = new PrintWriter(Atlas.ATLAS_PATH);
+        atlas.println("# Generated by AtlasBuilder: [frame] [sheet] [x] [y] [width] [height]");
+        ArrayList<String> report = new ArrayList<>();
+        for (int i = 0; i < sheetHeights.size(); i++) {
+            // Power of two heights, the size the graphics card uses anyway
+            int height = 1;
+            while (height < sheetHeights.get(i)) {
+                height *= 2;
+            }
+            String sheetPath = Atlas.ATLAS_FOLDER + "/atlas-" + (i + 1) + ".png";
+            BufferedImage sheetImage = new BufferedImage(SHEET_SIZE, height,
+                    BufferedImage.TYPE_INT_ARGB);
+            int frameCount = 0;
+            long usedArea = 0;
+            for (Frame frame : frames) {
+                if (frame.sheet != i) {
+                    continue;
+                }
+                drawFrame(sheetImage, frame);
+                atlas.println(frame.path + " " + sheetPath + " " + frame.x + " " + frame.y + " "
+                        + frame.image.getWidth() + " " + frame.image.getHeight());
+                frameCount++;
+                usedArea += frame.image.getWidth() * frame.image.getHeight();
+            }
+            ImageIO.write(sheetImage, "png", new File(sheetPath));
+            report.add(sheetPath + ": " + SHEET_SIZE + "x" + height + ", " + frameCount
+                    + " frames, " + (usedArea * 100 / ((long)SHEET_SIZE * height)) + "% used");
+        }
+        atlas.close();
+
+        report.add((frames.size() - tooLarge.size()) + " of " + frames.size() + " frames in "
+                + sheetHeights.size() + " sheets");
+        for (Frame frame : tooLarge) {
+            report.add("Too large for a sheet, loaded on its own: " + frame.path);
+        }
+
+        PrintWriter reportFile = new PrintWriter(REPORT_PATH);
+        for (String line : report) {
+            System.out.println(line);
+            reportFile.println(line);
+        }
+        reportFile.close();
+    }
+
+    /**
+     * Draws a frame into its sheet, with its edge pixels copied out into the border.
+     *
+     * @param sheetImage The sheet.
+     * @param frame The frame, with its location in the sheet.
+     */
+    private static void drawFrame(BufferedImage sheetImage, Frame frame) {
+        int width = frame.image.getWidth();
+        int height = frame.image.getHeight();
+        for (int y = -BORDER; y < height + BORDER; y++) {
+            for (int x = -BORDER; x < width + BORDER; x++) {
+                int sourceX = Math.min(Math.max(x, 0), width - 1);
+                int sourceY = Math.min(Math.max(y, 0), height - 1);
+                sheetImage.setRGB(frame.x + x, frame.y + y, frame.image.getRGB(sourceX, sourceY));
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+import org.newdawn.slick.Graphics;
+import org.newdawn.slick.geom.Rectangle;
+
+/**
+ * The Camera class owns the offset between the world and the screen. Everything in a room stays
+ * in fixed world coordinates, and the offset is applied once when rendering. The camera keeps
+ * the rectangle it follows (the player) at a fixed anchor on the screen, and knows which part of
+ * the world is visible so everything else can be skipped when drawing.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class Camera {
+    // The screen location the followed rectangle is kept at
+    private float anchorX;
+    private float anchorY;
+
+    // The current offset of the world, how much it has moved (when the player moves)
+    private float xOffset;
+    private float yOffset;
+
+    // Size of the screen, the part of the world that is visible
+    private int viewWidth;
+    private int viewHeight;
+
+    /**
+     * Constructor of the Camera class. The camera starts without any offset.
+     *
+     * @param anchorX X location on the screen to keep the followed rectangle at.
+     * @param anchorY Y location on the screen to keep the followed rectangle at.
+     * @param viewWidth Width of the screen.
+     * @param viewHeight Height of the screen.
+     */
+    public Camera(float anchorX, float anchorY, int viewWidth, int viewHeight) {
+        this.anchorX = anchorX;
+        this.anchorY = anchorY;
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+        xOffset = 0;
+        yOffset = 0;
+    }
+
+    /**
+     * Moves the camera so that a location is placed at the anchor on the screen.
+     *
+     * @param x The x-coordinate to follow, in world coordinates.
+     * @param y The y-coordinate to follow, in world coordinates.
+     */
+    public void follow(float x, float y) {
+        xOffset = anchorX - x;
+        yOffset = anchorY - y;
+    }
+
+    /**
+     * Sets the offset of the camera directly, used when the player changes room.
+     *
+     * @param xOffset The offset in the x-direction.
+     * @param yOffset The offset in the y-direction.
+     */
+    public void setOffset(float xOffset, float yOffset) {
+        this.xOffset = xOffset;
+        this.yOffset = yOffset;
+    }
+
+    /**
+     * @return The x-coordinate in the world currently under the anchor.
+     */
+    public float getAnchorWorldX() { return anchorX - xOffset; }
+
+    /**
+     * @return The y-coordinate in the world currently under the anchor.
+     */
+    public float getAnchorWorldY() { return anchorY - yOffset; }
+
+    /**
+     * @return The current offset in the x-direction.
+     */
+    public float getXOffset() { return xOffset; }
+
+    /**
+     * @return The current offset in the y-direction.
+     */
+    public float getYOffset() { return yOffset; }
+
+    /**
+     * @return The x-coordinate in the world at the left edge of the screen.
+     */
+    public int getViewX() { return -(int)xOffset; }
+
+    /**
+     * @return The y-coordinate in the world at the top edge of the screen.
+     */
+    public int getViewY() { return -(int)yOffset; }
+
+    /**
+     * @return Width of the screen.
+     */
+    public int getViewWidth() { return viewWidth; }
+
+    /**
+     * @return Height of the screen.
+     */
+    public int getViewHeight() { return viewHeight; }
+
+    /**
+     * Checks if a rectangle in the world is on the screen.
+     *
+     * @param rectangle The rectangle, in world coordinates.
+     * @param margin How far outside the rectangle things belonging to it are drawn, like a
+     *               larger animation frame or a health label.
+     * @return True if the rectangle, grown by the margin, is on the screen.
+     */
+    public boolean isVisible(Rectangle rectangle, float margin) {
+        int viewX = getViewX();
+        int viewY = getViewY();
+        return rectangle.getX() - margin < viewX + viewWidth
+                && rectangle.getX() + rectangle.getWidth() + margin > viewX
+                && rectangle.getY() - margin < viewY + viewHeight
+                && rectangle.getY() + rectangle.getHeight() + margin > viewY;
+    }
+
+    /**
+     * Applies the camera offset, everything drawn until reset is called is drawn in world
+     * coordinates.
+     *
+     * @param graphics Graphics component used to draw.
+     */
+    public void apply(Graphics graphics) {
+        graphics.pushTransform();
+        // Whole pixels, so the tiles of the map line up with the screen
+        graphics.translate((int)xOffset, (int)yOffset);
+    }
+
+    /**
+     * Removes the camera offset, everything drawn afterwards is drawn in screen coordinates.
+     *
+     * @param graphics Graphics component used to draw.
+     */
+    public void reset(Graphics graphics) {
+        graphics.popTransform();
+    }
+}
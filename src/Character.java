@@ -1,12 +1,10 @@
-import org.newdawn.slick.Animation;
 import org.newdawn.slick.Color;
 import org.newdawn.slick.Graphics;
+import org.newdawn.slick.Image;
 import org.newdawn.slick.SlickException;
 import org.newdawn.slick.geom.Rectangle;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
 
 /**
  * The class for NPC characters. Each NPC character holds its own Inventory object, movement path,
@@ -15,18 +13,25 @@ import java.util.Iterator;
  * @author Oskar Eriksson and Gustave Rousselet
  * @version 0.1
  */
-public class Character extends Entity {
+public class Character extends Entity implements InventoryListener {
     private String type;
     private Inventory inventory;
     private int health;
+    // The health as drawn above the character, only rebuilt when the health changes
+    private String healthText;
 
-    private ArrayList<String> movementPath;
-    private ArrayList<String> movementArray;
+    // The movement program shared by the characters of the type, and where this one is in it
+    private MovementProgram movementProgram;
+    private int movementIndex;
+    private int movementTimeLeft;
     private String lastDirection;
     private float speed;
 
-    private ArrayList<String> currentDialogueArray;
-    private HashMap<String, ArrayList<String>> dialogueMap;
+    // The dialogue shared by the characters of the type, the branch this one is saying and the
+    // items that have already been given to it
+    private DialogueTable dialogueTable;
+    private DialogueTable.Line[] currentDialogue;
+    private HashSet<String> receivedItems;
     private int dialogueIndex;
     private boolean inDialogue;
     private Character inDialogueWith;
@@ -47,24 +52,22 @@ public class Character extends Entity {
         super(rectangle, name, "character");
         // Starting settings for all characters
         health = 100;
+        healthText = "100%";
         inventory = new Inventory();
         this.type = type;
 
-        // The movementPath is the path of the character, does not change
-        movementPath = Tools.readFileToArray("res/characters/"
-                + getName().replaceAll("\\d", "") + "/movement.txt");
-        // All characters that are NOT player need generated dialogue
+        // All characters that are NOT player need a movement program and generated dialogue
         if (!name.equals("player")) {
-            if (movementPath != null) {
-                movementArray = new ArrayList<>(movementPath);
-            }
-            dialogueMap = generateDialogueFromArray(
-                    Tools.readFileToArray("res/characters/"
-                            + getName().replaceAll("\\d", "") + "/dialogue.txt"));
-            currentDialogueArray = dialogueMap.get("null");
+            String assetName = Tools.getAssetName("character", name);
+            movementProgram = MovementProgram.get(assetName);
+            restartMovement();
+            dialogueTable = DialogueTable.get(assetName);
+            currentDialogue = dialogueTable.getBranch(DialogueTable.DEFAULT_BRANCH);
+            receivedItems = new HashSet<>();
         }
         this.speed = speed;
         lastDirection = "down";
+        getAnimationState().play(AnimationState.DOWN);
 
 
         // Dialogue starts at index 0
@@ -83,47 +86,59 @@ public class Character extends Entity {
      * @param delta Variable used for FPS.
      */
     public void updateLocation(int delta) {
-        if (movementArray != null) {
-            for (int i = 0; i < movementArray.size(); i++) {
-                String[] pixelsAndDirection = movementArray.get(i).split(" ");
-                int ms = Integer.parseInt(pixelsAndDirection[0]);
-                if (ms > 0) {
-                    switch (pixelsAndDirection[1]) {
-                        case "D":
-                            setFrozen(false);
-                            getRect().setY(getRect().getY() + speed * delta);
-                            lastDirection = "down";
-                            break;
-                        case "U":
-                            setFrozen(false);
-                            getRect().setY(getRect().getY() - speed * delta);
-                            lastDirection = "up";
-                            break;
-                        case "L":
-                            setFrozen(false);
-                            getRect().setX(getRect().getX() - speed * delta);
-                            lastDirection = "left";
-                            break;
-                        case "R":
-                            setFrozen(false);
-                            getRect().setX(getRect().getX() + speed * delta);
-                            lastDirection = "right";
-                            break;
-                        case "S":
-                            setFrozen(true);
-                            break;
-                        default:
-                            break;
-                    }
-
-                    ms -= delta;
-                    movementArray.set(i, Integer.toString(ms) + " " + pixelsAndDirection[1]);
-                    return;
-                }
+        if (movementProgram == null) {
+            return;
+        }
+        // Skip the instructions that are done
+        while (movementIndex < movementProgram.getLength() && movementTimeLeft <= 0) {
+            movementIndex++;
+            if (movementIndex < movementProgram.getLength()) {
+                movementTimeLeft = movementProgram.getDuration(movementIndex);
             }
+        }
+        if (movementIndex == movementProgram.getLength()) {
             // Didn't find any more movement to do, reset movement
-            movementArray = new ArrayList<>(movementPath);
+            restartMovement();
+            return;
+        }
+
+        switch (movementProgram.getOpcode(movementIndex)) {
+            case MovementProgram.DOWN:
+                setFrozen(false);
+                getRect().setY(getRect().getY() + speed * delta);
+                lastDirection = "down";
+                break;
+            case MovementProgram.UP:
+                setFrozen(false);
+                getRect().setY(getRect().getY() - speed * delta);
+                lastDirection = "up";
+                break;
+            case MovementProgram.LEFT:
+                setFrozen(false);
+                getRect().setX(getRect().getX() - speed * delta);
+                lastDirection = "left";
+                break;
+            case MovementProgram.RIGHT:
+                setFrozen(false);
+                getRect().setX(getRect().getX() + speed * delta);
+                lastDirection = "right";
+                break;
+            case MovementProgram.STOP:
+                setFrozen(true);
+                break;
+            default:
+                break;
         }
+        movementTimeLeft -= delta;
+    }
+
+    /**
+     * Method used to start the movement program from the first instruction.
+     */
+    private void restartMovement() {
+        movementIndex = 0;
+        movementTimeLeft = movementProgram != null && movementProgram.getLength() > 0
+                ? movementProgram.getDuration(0) : 0;
     }
 
     /**
@@ -148,25 +163,44 @@ public class Character extends Entity {
     public String getLastDirection() { return lastDirection; }
 
     /**
-     * Renders the character animation onto the screen. All relative to player position.
+     * Submits the character animation to the render queue, interpolated between the previous and
+     * the current tick.
+     *
+     * @param queue The render queue.
+     * @param layer The layer to draw the character in, i.e RenderQueue.LAYER_CHARACTERS.
+     * @param player Player used to check if the character should face the player.
+     * @param alpha How far into the next tick the frame is rendered (0 to 1).
+     */
+    public void renderCharacter(RenderQueue queue, int layer, Player player, float alpha) {
+        Image frame = getCurrentFrame(player);
+        if (frame == null) {
+            return;
+        }
+        queue.submit(layer, frame, getRenderX(alpha) + (getRect().getWidth()
+                        - frame.getWidth()) / 2,
+                getRenderY(alpha) + (getRect().getHeight() - frame.getHeight()) / 2);
+    }
+
+    /**
+     * Draws the text of the character, the dialogue if the character is in dialogue and the
+     * health. Drawn after the sprites, so the text is on top.
      *
-     * @param player Player used to get player location as reference point for all rendering.
-     * @param graphics Graphics used to draw character.
+     * @param graphics Graphics used to draw the dialogue.
+     * @param alpha How far into the next tick the frame is rendered (0 to 1).
      */
-    public void renderCharacter(Player player, Graphics graphics) {
-        getAnimation(player).draw(getRect().getX() + (getRect().getWidth()
-                        - getAnimation(player).getCurrentFrame().getWidth()) / 2,
-                getRect().getY() + (getRect().getHeight()
-                        - getAnimation(player).getCurrentFrame().getHeight()) / 2);
+    public void renderText(Graphics graphics, float alpha) {
         if (inDialogue) {
-            displayDialogue(graphics, player);
+            displayDialogue(graphics, alpha);
         }
+        drawHealth(alpha);
     }
 
     /**
      * Method used to draw onto the screen the health of the character.
+     *
+     * @param alpha How far into the next tick the frame is rendered (0 to 1).
      */
-    public void drawHealth() {
+    public void drawHealth(float alpha) {
         Color color = Color.white;
         if (health < 100) {
             // Character is damaged, change color according to how damaged
@@ -177,10 +211,9 @@ public class Character extends Entity {
             } else {
                 color = Color.red;
             }
-            getFont().drawString(getRect().getX() + 1, getRect().getY() - 14,
-                    Integer.toString(health) + "%", Color.black);
-            getFont().drawString(getRect().getX(), getRect().getY() - 15,
-                    Integer.toString(health) + "%", color);
+            getFont().drawString(getRenderX(alpha) + 1, getRenderY(alpha) - 14,
+                    healthText, Color.black);
+            getFont().drawString(getRenderX(alpha), getRenderY(alpha) - 15, healthText, color);
         }
     }
 
@@ -201,87 +234,138 @@ public class Character extends Entity {
     public void takeDamage(int damage) {
         if (!type.equals("friend")) {
             health -= damage;
+            healthText = health + "%";
         }
     }
 
     /**
-     * Method used to get the animation of the character at the current time and current state of
+     * Method used to get the frame of the character at the current time and current state of
      * the game. If the character is in dialogue with the player, then the character faces the player.
      *
      * @param player The player, used to check if inDialogue is true (in dialogue with player).
-     * @return Animation depending on if frozen or if in dialogue with player, or regular.
+     * @return Frame depending on if frozen or if in dialogue with player, or regular (null if
+     * the character doesn't have any frames).
      */
-    public Animation getAnimation(Player player) {
-        if (!isFrozen()) {
-            return getDefaultAnimation();
-        } else {
-            if (!inDialogue) {
-                return Tools.getFreezeAnimation(getAnimationArray(), lastDirection);
-            } else if (!type.equals("player")) {
-                return Tools.getFreezeAnimation(getAnimationArray(), faceCharacter(player));
-            } else {
-                return Tools.getFreezeAnimation(getAnimationArray(), faceCharacter(player));
-            }
+    public Image getCurrentFrame(Player player) {
+        if (isFrozen() && inDialogue) {
+            return getAnimationState().getIdleFrame(
+                    AnimationState.getDirectionIndex(faceCharacter(player), AnimationState.UP));
+        } else if (isFrozen()) {
+            return getAnimationState().getIdleFrame(
+                    AnimationState.getDirectionIndex(lastDirection, AnimationState.UP));
         }
+        return getAnimationState().getFrame();
     }
 
     /**
-     * Method used to get the default animation of the character.
+     * Method used to move the animation of the direction the character is facing forward, once
+     * per tick.
      *
-     * @return Animation the default animation of the character.
+     * @param delta Length of the tick (ms).
      */
-    public Animation getDefaultAnimation() {
-        switch (lastDirection) {
-            case ("up"):
-                return getAnimationArray().get(0);
-            case ("down"):
-                return getAnimationArray().get(1);
-            case ("left"):
-                return getAnimationArray().get(2);
-            case ("right"):
-                return getAnimationArray().get(3);
-            default:
-                return getAnimationArray().get(1);
-        }
+    @Override
+    public void updateAnimation(int delta) {
+        getAnimationState().play(AnimationState.getDirectionIndex(lastDirection,
+                AnimationState.DOWN));
+        super.updateAnimation(delta);
     }
 
     /**
-     * Method used to display the dialogue of a character. Dialogue is gotten from dialogue
-     * HashMap. The dialogue HashMap is then changed based on if the player is holding an item of
-     * interest to the character.
+     * Method used to display the current line of the dialogue of a character, in a box above the
+     * character. The box is measured when the dialogue is read.
      *
      * @param graphics Graphics used to draw dialogue.
-     * @param player Player used to check for items.
+     * @param alpha How far into the next tick the frame is rendered (0 to 1).
      */
-    public void displayDialogue(Graphics graphics, Player player) {
-        // Look in player inventory to see if player is holding any relevant inventory
-        Iterator<Item> inventoryIterator = player.getInventory().getItems().iterator();
-        while (inventoryIterator.hasNext()) {
-            Item currentItem = inventoryIterator.next();
-            if (dialogueMap.containsKey(currentItem.getName())) {
-                // Relevant Item found, get relevant dialogue
-                currentDialogueArray = dialogueMap.get(currentItem.getName());
-                dialogueIndex = 0;
-                // Remove dialogue for relevant item since it has been used
-                dialogueMap.remove(currentItem.getName());
-                // Take item from player and add to character inventory
-                inventory.addItem(currentItem);
-                inventoryIterator.remove();
-            }
+    public void displayDialogue(Graphics graphics, float alpha) {
+        if (dialogueIndex >= currentDialogue.length) {
+            return;
         }
-        // Create dialogue rectangle
-        Rectangle dialogueRectangle = new Rectangle(getRect().getCenterX()
-                - getFont().getWidth(currentDialogueArray.get(dialogueIndex)) / 2,
-                getRect().getY() - getFont().getHeight(currentDialogueArray.get(dialogueIndex)) - 10,
-                getFont().getWidth(currentDialogueArray.get(dialogueIndex)) + 4, getFont().getHeight() + 2);
+        DialogueTable.Line line = currentDialogue[dialogueIndex];
+        float boxX = getRenderX(alpha) + getRect().getWidth() / 2 - line.getTextWidth() / 2;
+        // The box ends 8 px above the character
+        float boxY = getRenderY(alpha) - line.getBoxHeight() - 8;
         graphics.setColor(Color.black);
-        graphics.fill(dialogueRectangle);
+        graphics.fillRect(boxX, boxY, line.getBoxWidth(), line.getBoxHeight());
+
+        // Draw dialogue text in the box
+        getFont().drawString(boxX + 2, boxY + 1, line.getText(), Color.white);
+    }
 
-        // Draw dialogue text in the rectangle
-        getFont().drawString(dialogueRectangle.getX() + 2, dialogueRectangle.getY() + 1,
-                currentDialogueArray.get(dialogueIndex), Color.white);
+    /**
+     * Method used to start the dialogue of the character with the player. If the player is
+     * holding items the character wants, the character takes them and says what it has to say
+     * about them instead. Items the player gets during the dialogue are taken when they are
+     * added.
+     *
+     * @param player The player.
+     */
+    public void startDialogue(Player player) {
+        setInDialogue(true);
+        Inventory playerInventory = player.getInventory();
+        playerInventory.addListener(this);
+        for (String itemName : dialogueTable.getTriggerItems()) {
+            Item item = playerInventory.getItemByName(itemName);
+            if (item != null) {
+                receiveItem(playerInventory, item);
+            }
+        }
     }
 
+    /**
+     * Method used to end the dialogue of the character with the player.
+     *
+     * @param player The player.
+     */
+    public void endDialogue(Player player) {
+        setInDialogue(false);
+        player.getInventory().removeListener(this);
+    }
+
+    /**
+     * Takes an item from the player, if the character wants it and hasn't been given it before,
+     * and switches to the dialogue about it.
+     *
+     * @param playerInventory The inventory of the player.
+     * @param item The item.
+     */
+    private void receiveItem(Inventory playerInventory, Item item) {
+        DialogueTable.Line[] branch = dialogueTable.getBranch(item.getName());
+        if (branch == null || item.getName().equals(DialogueTable.DEFAULT_BRANCH)
+                || receivedItems.contains(item.getName())) {
+            return;
+        }
+        // The dialogue about an item is only switched to once
+        receivedItems.add(item.getName());
+        currentDialogue = branch;
+        dialogueIndex = 0;
+        // Take item from player and add to character inventory
+        playerInventory.removeItem(item);
+        inventory.addItem(item);
+    }
+
+    /**
+     * Takes the item if the character is in dialogue and wants it.
+     *
+     * @param inventory The inventory of the player.
+     * @param item The item that was added.
+     */
+    @Override
+    public void itemAdded(Inventory inventory, Item item) {
+        if (inDialogue) {
+            receiveItem(inventory, item);
+        }
+    }
+
+    /**
+     * Nothing to do, the character only cares about items being added.
+     *
+     * @param inventory The inventory of the player.
+     * @param item The item that was removed.
+     */
+    @Override
+    public void itemRemoved(Inventory inventory, Item item) { }
+
     /**
      * Method used to face player when in dialogue.
      *
@@ -312,7 +396,7 @@ public class Character extends Entity {
      */
     public boolean increaseDialogueIndex() {
         dialogueIndex++;
-        if (dialogueIndex >= currentDialogueArray.size()) {
+        if (dialogueIndex >= currentDialogue.length) {
             // No more dialogue in array, reset index to 0
             dialogueIndex = 0;
             return false;
@@ -329,41 +413,6 @@ public class Character extends Entity {
         return inDialogue;
     }
 
-    /**
-     * Method used to generate dialogue from an ArrayList of lines which have been generated from
-     * the class Tools which reads from the dialogue text file in the character directory.
-     *
-     * @param dialogueFileLines ArrayList of Strings which are the read lines from the dialogue.txt
-     *                          file in the character directory.
-     * @return HashMap dialogueHashMap for character. Generated from dialogue.txt.
-     */
-    public HashMap<String, ArrayList<String>> generateDialogueFromArray(
-            ArrayList<String> dialogueFileLines) {
-        HashMap<String, ArrayList<String>> returnHashMap = new HashMap<>();
-
-        if (dialogueFileLines.size() <= 0) {
-            return null;
-        }
-
-        String firstline = dialogueFileLines.get(0);
-        String[] listOfRelevantItems = firstline.split(",");
-        dialogueFileLines.remove(0);
-        for (String itemName : listOfRelevantItems) {
-            ArrayList<String> toAdd = new ArrayList<>();
-            dialogueFileLines.remove(0);
-            String toRead = dialogueFileLines.get(0);
-            while (!toRead.contains(":") && dialogueFileLines.size() > 0) {
-                toAdd.add(toRead);
-                dialogueFileLines.remove(0);
-                if (dialogueFileLines.size() > 0) {
-                    toRead = dialogueFileLines.get(0);
-                }
-            }
-            returnHashMap.put(itemName, toAdd);
-        }
-        return returnHashMap;
-    }
-
     /**
      * Method used to set the character in dialogue with a certain character.
      *
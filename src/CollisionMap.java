@@ -0,0 +1,309 @@
+import org.newdawn.slick.geom.Rectangle;
+
+import java.util.ArrayList;
+
+/**
+ * A compact collision layer for a room, one bit per tile telling whether the tile is blocked.
+ * The bits are stored row by row in an array of longs, so checking a tile is a single word read
+ * and checking a box is a handful of them.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class CollisionMap {
+    private int width;
+    private int height;
+    private int tileWidth;
+    private int tileHeight;
+
+    // One bit per tile, the tile (x, y) is bit number y * width + x
+    private long[] bits;
+
+    /**
+     * Constructor of the CollisionMap class, all tiles start out unblocked.
+     *
+     * @param width Width of the map (in tiles).
+     * @param height Height of the map (in tiles).
+     * @param tileWidth Width of a tile (px).
+     * @param tileHeight Height of a tile (px).
+     */
+    public CollisionMap(int width, int height, int tileWidth, int tileHeight) {
+        this.width = width;
+        this.height = height;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        bits = new long[(width * height + 63) / 64];
+    }
+
+    /**
+     * Constructor of the CollisionMap class, with tiles that are already known.
+     *
+     * @param width Width of the map (in tiles).
+     * @param height Height of the map (in tiles).
+     * @param tileWidth Width of a tile (px).
+     * @param tileHeight Height of a tile (px).
+     * @param bits One bit per tile, the tile (x, y) is bit number y * width + x.
+     */
+    public CollisionMap(int width, int height, int tileWidth, int tileHeight, long[] bits) {
+        this(width, height, tileWidth, tileHeight);
+        System.arraycopy(bits, 0, this.bits, 0, Math.min(bits.length, this.bits.length));
+    }
+
+    /**
+     * Marks a tile as blocked.
+     *
+     * @param tileX X coordinate of the tile (in tiles).
+     * @param tileY Y coordinate of the tile (in tiles).
+     */
+    public void setBlocked(int tileX, int tileY) {
+        int index = tileY * width + tileX;
+        bits[index >> 6] |= 1L << index;
+    }
+
+    /**
+     * Checks if a tile is blocked, tiles outside of the map are never blocked.
+     *
+     * @param tileX X coordinate of the tile (in tiles).
+     * @param tileY Y coordinate of the tile (in tiles).
+     * @return True if the tile is blocked.
+     */
+    public boolean isBlockedAt(int tileX, int tileY) {
+        if (tileX < 0 || tileY < 0 || tileX >= width || tileY >= height) {
+            return false;
+        }
+        int index = tileY * width + tileX;
+        return (bits[index >> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Checks if any blocked tile is under a box. Touching a blocked tile counts as intersecting
+     * it, the same way as Rectangle.intersects.
+     *
+     * @param x X coordinate of the box (in world coordinates).
+     * @param y Y coordinate of the box (in world coordinates).
+     * @param boxWidth Width of the box.
+     * @param boxHeight Height of the box.
+     * @return True if the box intersects a blocked tile.
+     */
+    public boolean intersects(float x, float y, float boxWidth, float boxHeight) {
+        // A tile is touched from the left/top as soon as the box reaches its far edge
+        int firstColumn = Math.max(0, (int)Math.ceil(x / tileWidth) - 1);
+        int lastColumn = Math.min(width - 1, (int)Math.floor((x + boxWidth) / tileWidth));
+        int firstRow = Math.max(0, (int)Math.ceil(y / tileHeight) - 1);
+        int lastRow = Math.min(height - 1, (int)Math.floor((y + boxHeight) / tileHeight));
+        for (int row = firstRow; row <= lastRow; row++) {
+            if (isRowBlocked(row, firstColumn, lastColumn)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sweeps a box along one axis and finds the first blocked tile it touches on the way.
+     * Only the tiles the leading edge of the box passes are checked, so a fast box can't skip
+     * over a blocked tile no matter how far it moves.
+     *
+     * @param x X coordinate of the box before moving (in world coordinates).
+     * @param y Y coordinate of the box before moving (in world coordinates).
+     * @param boxWidth Width of the box.
+     * @param boxHeight Height of the box.
+     * @param xMovement How far the box moves in the x-direction (zero if moving vertically).
+     * @param yMovement How far the box moves in the y-direction (zero if moving horizontally).
+     * @return The fraction of the movement (0 to 1) at which the box first touches a blocked
+     * tile, or -1 if it doesn't touch any.
+     */
+    public float sweep(float x, float y, float boxWidth, float boxHeight,
+                       float xMovement, float yMovement) {
+        if (intersects(x, y, boxWidth, boxHeight)) {
+            return 0;
+        }
+
+        if (xMovement != 0) {
+            int firstRow = Math.max(0, (int)Math.ceil(y / tileHeight) - 1);
+            int lastRow = Math.min(height - 1, (int)Math.floor((y + boxHeight) / tileHeight));
+            if (xMovement > 0) {
+                // Moving right, the leading edge is the right side of the box
+                float edge = x + boxWidth;
+                int lastColumn = (int)Math.floor((edge + xMovement) / tileWidth);
+                for (int column = (int)Math.floor(edge / tileWidth) + 1;
+                     column <= lastColumn && column < width; column++) {
+                    if (column >= 0 && isColumnBlocked(column, firstRow, lastRow)) {
+                        return (column * tileWidth - edge) / xMovement;
+                    }
+                }
+            } else {
+                // Moving left, the leading edge is the left side of the box
+                int lastColumn = (int)Math.ceil((x + xMovement) / tileWidth) - 1;
+                for (int column = (int)Math.ceil(x / tileWidth) - 2;
+                     column >= lastColumn && column >= 0; column--) {
+                    if (column < width && isColumnBlocked(column, firstRow, lastRow)) {
+                        return (x - (column + 1) * tileWidth) / -xMovement;
+                    }
+                }
+            }
+        } else if (yMovement != 0) {
+            int firstColumn = Math.max(0, (int)Math.ceil(x / tileWidth) - 1);
+            int lastColumn = Math.min(width - 1, (int)Math.floor((x + boxWidth) / tileWidth));
+            if (yMovement > 0) {
+                // Moving down, the leading edge is the bottom of the box
+                float edge = y + boxHeight;
+                int lastRow = (int)Math.floor((edge + yMovement) / tileHeight);
+                for (int row = (int)Math.floor(edge / tileHeight) + 1;
+                     row <= lastRow && row < height; row++) {
+                    if (row >= 0 && isRowBlocked(row, firstColumn, lastColumn)) {
+                        return (row * tileHeight - edge) / yMovement;
+                    }
+                }
+            } else {
+                // Moving up, the leading edge is the top of the box
+                int lastRow = (int)Math.ceil((y + yMovement) / tileHeight) - 1;
+                for (int row = (int)Math.ceil(y / tileHeight) - 2;
+                     row >= lastRow && row >= 0; row--) {
+                    if (row < height && isRowBlocked(row, firstColumn, lastColumn)) {
+                        return (y - (row + 1) * tileHeight) / -yMovement;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param row The row to check.
+     * @param firstColumn The first column to check.
+     * @param lastColumn The last column to check.
+     * @return True if any tile in the row between the columns is blocked.
+     */
+    private boolean isRowBlocked(int row, int firstColumn, int lastColumn) {
+        for (int column = firstColumn; column <= lastColumn; column++) {
+            if (isSet(bits, row * width + column)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param column The column to check.
+     * @param firstRow The first row to check.
+     * @param lastRow The last row to check.
+     * @return True if any tile in the column between the rows is blocked.
+     */
+    private boolean isColumnBlocked(int column, int firstRow, int lastRow) {
+        for (int row = firstRow; row <= lastRow; row++) {
+            if (isSet(bits, row * width + column)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Merges the blocked tiles into as few rectangles as possible. Runs of blocked tiles in a row
+     * are merged first, then the run is grown downwards for as long as the rows below are
+     * blocked for the whole run. Every blocked tile ends up in exactly one rectangle.
+     *
+     * @return An ArrayList of rectangles covering exactly the blocked tiles (in world coordinates).
+     */
+    public ArrayList<Rectangle> toMergedRectangles() {
+        ArrayList<Rectangle> rectangles = new ArrayList<>();
+        long[] merged = new long[bits.length];
+
+        for (int row = 0; row < height; row++) {
+            for (int column = 0; column < width; column++) {
+                if (!isBlockedAt(column, row) || isSet(merged, row * width + column)) {
+                    continue;
+                }
+
+                // Grow the run to the right
+                int runWidth = 1;
+                while (column + runWidth < width && isBlockedAt(column + runWidth, row)
+                        && !isSet(merged, row * width + column + runWidth)) {
+                    runWidth++;
+                }
+
+                // Grow the run downwards while the whole run is blocked on the next row
+                int runHeight = 1;
+                while (row + runHeight < height
+                        && isRunFree(merged, column, row + runHeight, runWidth)) {
+                    runHeight++;
+                }
+
+                // Mark the tiles as merged and add the rectangle
+                for (int y = row; y < row + runHeight; y++) {
+                    for (int x = column; x < column + runWidth; x++) {
+                        int index = y * width + x;
+                        merged[index >> 6] |= 1L << index;
+                    }
+                }
+                rectangles.add(new Rectangle((float)column * tileWidth, (float)row * tileHeight,
+                        runWidth * tileWidth, runHeight * tileHeight));
+            }
+        }
+        return rectangles;
+    }
+
+    /**
+     * @return The number of blocked tiles in the map.
+     */
+    public int getBlockedCount() {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Checks if a run of tiles in a row is blocked and not merged yet.
+     *
+     * @param merged The tiles that are already merged.
+     * @param column The first column of the run.
+     * @param row The row of the run.
+     * @param runWidth The width of the run (in tiles).
+     * @return True if every tile in the run is blocked and not merged yet.
+     */
+    private boolean isRunFree(long[] merged, int column, int row, int runWidth) {
+        for (int x = column; x < column + runWidth; x++) {
+            if (!isBlockedAt(x, row) || isSet(merged, row * width + x)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param words A bit set stored in longs.
+     * @param index The index of the bit.
+     * @return True if the bit is set.
+     */
+    private static boolean isSet(long[] words, int index) {
+        return (words[index >> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * @return The bits of the map, one per tile, the tile (x, y) is bit number y * width + x.
+     */
+    public long[] getBits() { return bits; }
+
+    /**
+     * @return Width of the map (in tiles).
+     */
+    public int getWidth() { return width; }
+
+    /**
+     * @return Height of the map (in tiles).
+     */
+    public int getHeight() { return height; }
+
+    /**
+     * @return Width of a tile (px).
+     */
+    public int getTileWidth() { return tileWidth; }
+
+    /**
+     * @return Height of a tile (px).
+     */
+    public int getTileHeight() { return tileHeight; }
+}
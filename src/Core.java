@@ -1,7 +1,8 @@
 import org.newdawn.slick.*;
 import org.newdawn.slick.Graphics;
 
-import java.util.Date;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -13,22 +14,47 @@ import java.util.logging.Logger;
  * @author Oskar Eriksson and Gustave Rousselet
  * @version 0.1
  */
-public class Core extends BasicGame {
-    // Reads settings from setting file
-    public static final int WIDTH = Tools.readSettings("res/settings.txt", "WIDTH");
-    public static final int HEIGHT = Tools.readSettings("res/settings.txt", "HEIGHT");
-    public static final int FPS_LIMIT = Tools.readSettings("res/settings.txt", "FPS_LIMIT");
-    public static final int DEBUG_ENABLED = Tools.readSettings("res/settings.txt", "DEBUG_ENABLED");
+public class Core extends BasicGame implements SettingsListener {
+    // Settings read once from the setting file, the frame rate limit may be changed while running
+    public static final int WIDTH = Settings.get().getWidth();
+    public static final int HEIGHT = Settings.get().getHeight();
+    public static final int FPS_LIMIT = Settings.get().getFpsLimit();
+
+    // Length of a simulation tick (ms), and how many ticks a frame may run to catch up
+    public static final int TICK_LENGTH = Settings.get().getTickLength();
+    public static final int MAX_TICKS_PER_FRAME = 5;
 
     // The World object handles the game world
     private World world;
 
+    // The keyboard, read by the world once per tick
+    private InputSource input;
+
+    // Records the keyboard to a file, if the game was started with -record
+    private static String recordPath = null;
+    private InputRecorder recorder;
+
     // GameState object, holding information about the state of the game,
     // if the inventory is open, if the player is in a dialogue etc
     private GameState gameState;
 
-    // Time handling for start and end game screens
-    private long startTime;
+    // Times the start and end screens, on the time between frames
+    private TimerWheel screenTimers;
+    private boolean startScreenDone;
+    private boolean endScreenStarted;
+
+    // Loads the images and the first room while the start screen is up
+    private AssetLoader assetLoader;
+    private RoomLoader roomLoader;
+
+    // How long uploading images may take every frame on the start screen (ms)
+    private static final int UPLOAD_TIME_PER_FRAME = 4;
+
+    // Time that has passed but hasn't been simulated yet (ms)
+    private int accumulator;
+
+    // Settings read again by the watcher thread, applied at the start of the next update
+    private AtomicReference<Settings> changedSettings = new AtomicReference<>();
 
     // Start and end screen image
     private Image startScreen;
@@ -45,9 +71,12 @@ public class Core extends BasicGame {
     /**
      * The main method, sets up the game window and starts the game.
      *
-     * @param args Command-line arguments.
+     * @param args Command-line arguments, "-record [file]" records the input of the session.
      */
     public static void main(String[] args) {
+        if (args.length >= 2 && args[0].equals("-record")) {
+            recordPath = args[1];
+        }
         try {
             // Set up game window and start the game
             AppGameContainer appGC = new AppGameContainer(new Core("slick-game"));
@@ -67,21 +96,46 @@ public class Core extends BasicGame {
      */
     @Override
     public void init(GameContainer gameContainer) throws SlickException {
+        // Pick up changes to the settings files while the game is running
+        Settings.addListener(this);
+        Settings.watch();
+
         // Create GameState
         gameState = new GameState("startscreen");
+        input = new SlickInput(gameContainer.getInput());
+        if (recordPath != null) {
+            try {
+                recorder = new InputRecorder(input, recordPath);
+                input = recorder;
+            } catch (IOException ex) {
+                throw new SlickException("Could not record to " + recordPath, ex);
+            }
+        }
 
-        // Start and end screen
-        startTime = new Date().getTime();
+        // Start and end screen, the start screen is shown at least as long as the settings say
+        screenTimers = new TimerWheel(0, 1);
+        startScreenDone = false;
+        endScreenStarted = false;
+        screenTimers.schedule(Settings.get().getStartScreenTime(), () -> startScreenDone = true);
         startScreen = new Image("res/startscreen/startscreen.png");
         gameOverScreen = new Image("res/startscreen/endscreen.png");
         winGameScreen = new Image("res/startscreen/winscreen.png");
 
+        // Start decoding the images and reading the first room in the background
+        assetLoader = new AssetLoader();
+        assetLoader.decodeAnimations();
+        assetLoader.decodeRooms(World.getRoomNames());
+        roomLoader = new RoomLoader();
+        roomLoader.prefetch(World.getStartRoomName());
+
         // Set the world to null before the start screen is gone
         world = null;
+        accumulator = 0;
     }
 
     /**
-     * Update method that runs every frame
+     * Update method that runs every frame. The world is simulated in ticks of fixed length, as
+     * many as fit in the time that has passed, so the simulation doesn't depend on the frame rate.
      *
      * @param gameContainer GameContainer An object handling the game mechanics.
      * @param delta Amount of time that has passed since last updateGraphics (ms).
@@ -89,9 +143,27 @@ public class Core extends BasicGame {
      */
     @Override
     public void update(GameContainer gameContainer, int delta) throws SlickException {
+        // Apply the changed settings on the thread running the game
+        Settings settings = changedSettings.getAndSet(null);
+        if (settings != null) {
+            applySettings(gameContainer, settings);
+        }
+
+        screenTimers.advance(delta);
+
         // Updates the game world (if not still on the start screen)
         if (world != null) {
-            world.updateWorld(gameContainer, delta);
+            accumulator += delta;
+            int ticks = 0;
+            while (accumulator >= TICK_LENGTH && ticks < MAX_TICKS_PER_FRAME) {
+                world.updateWorld(input, TICK_LENGTH);
+                accumulator -= TICK_LENGTH;
+                ticks++;
+            }
+            // If the simulation can't keep up, drop the time instead of spiralling
+            if (accumulator >= TICK_LENGTH) {
+                accumulator = 0;
+            }
         }
     }
 
@@ -105,34 +177,107 @@ public class Core extends BasicGame {
     @Override
     public void render(GameContainer gameContainer, Graphics graphics) throws SlickException {
         if (gameState.getCurrentState().equals("startscreen")) {
-            // Render start screen until start screen time has elapsed
+            // Render start screen until start screen time has elapsed and everything is loaded
             startScreen.draw();
-            if ((new Date().getTime() - startTime)
-                    > Tools.readSettings("res/settings.txt", "START_SCREEN_TIME")) {
-                world = new World(gameState);
+            assetLoader.uploadSlice(UPLOAD_TIME_PER_FRAME);
+            drawProgress(graphics, assetLoader.getProgress());
+            if (startScreenDone && assetLoader.isDone()) {
+                assetLoader.shutdown();
+                world = new World(gameState, roomLoader);
                 gameState.startGame();
             }
         } else if (gameState.getCurrentState().equals("gameover")) {
             // If game over, draw the end screen, then quit game
             world = null;
             gameOverScreen.draw();
-            if ((new Date().getTime() - gameState.getEndTime())
-                    > Tools.readSettings("res/settings.txt", "END_SCREEN_TIME")) {
-                gameContainer.exit();
-            }
+            startEndScreen(gameContainer);
         } else if (gameState.getCurrentState().equals("wingame")) {
             // If game over, draw the end screen, then quit game
             world = null;
             winGameScreen.draw();
-            if ((new Date().getTime() - gameState.getEndTime())
-                    > Tools.readSettings("res/settings.txt", "END_SCREEN_TIME")) {
-                gameContainer.exit();
-            }
+            startEndScreen(gameContainer);
         } else {
             // Updates the graphics of the game world
             if (world != null) {
-                world.updateGraphics(graphics);
+                world.updateGraphics(graphics, (float)accumulator / TICK_LENGTH);
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Runs on the thread watching the settings files, the settings are applied by the next update.
+     *
+     * @param settings The new settings.
+     */
+    @Override
+    public void settingsChanged(Settings settings) { changedSettings.set(settings); }
+
+    /**
+     * Method used to apply the settings that may change while the game is running. The window
+     * size and the tick length are only read when the game starts.
+     *
+     * @param gameContainer GameContainer An object handling the game mechanics.
+     * @param settings The new settings.
+     */
+    private void applySettings(GameContainer gameContainer, Settings settings) {
+        gameContainer.setTargetFrameRate(settings.getFpsLimit());
+        if (world != null) {
+            world.applySettings(settings);
+        }
+        if (settings.getWidth() != WIDTH || settings.getHeight() != HEIGHT
+                || settings.getTickLength() != TICK_LENGTH) {
+            System.out.println("WIDTH, HEIGHT and TICK_LENGTH are only read when the game "
+                    + "starts, restart the game to use the new values");
+        }
+    }
+
+    /**
+     * Method used to quit the game when the end screen has been shown as long as the settings
+     * say, the first time the end screen is drawn.
+     *
+     * @param gameContainer GameContainer An object handling the game mechanics.
+     */
+    private void startEndScreen(GameContainer gameContainer) {
+        if (!endScreenStarted) {
+            endScreenStarted = true;
+            screenTimers.schedule(Settings.get().getEndScreenTime(), () -> {
+                stopRecording();
+                gameContainer.exit();
+            });
+        }
+    }
+
+    /**
+     * Method used to draw how much of the loading is done, as a bar at the bottom of the screen.
+     *
+     * @param graphics Graphics component used to draw to the screen.
+     * @param progress How much of the loading is done (0 to 1).
+     */
+    private void drawProgress(Graphics graphics, float progress) {
+        graphics.setColor(Color.darkGray);
+        graphics.fillRect(WIDTH / 4, HEIGHT - 40, WIDTH / 2, 6);
+        graphics.setColor(Color.white);
+        graphics.fillRect(WIDTH / 4, HEIGHT - 40, WIDTH / 2 * progress, 6);
+    }
+
+    /**
+     * Runs when the window is closed, stops the recording before the game quits.
+     *
+     * @return True, the game may always be closed.
+     */
+    @Override
+    public boolean closeRequested() {
+        stopRecording();
+        return true;
+    }
+
+    /**
+     * Method used to stop the recording of the input, if there is one.
+     */
+    private void stopRecording() {
+        if (recorder != null) {
+            recorder.close();
+            recorder = null;
+        }
+    }
+}
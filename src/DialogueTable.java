@@ -0,0 +1,144 @@
+import org.newdawn.slick.TrueTypeFont;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * The DialogueTable class is the dialogue.txt-file of a character type, read once and shared by
+ * every character of the type. The dialogue is split into branches, the default branch "null"
+ * and one branch per item that changes what the character says when the player brings it. The
+ * size of the box every line is drawn in is measured when the table is read, so drawing the
+ * dialogue doesn't measure or create anything.
+ *
+ * The file starts with a line listing the branches, followed by every branch as a "[NAME]:" line
+ * and the lines of the branch.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class DialogueTable {
+    public static final String DEFAULT_BRANCH = "null";
+
+    /**
+     * A line of dialogue and the size of the box it is drawn in.
+     */
+    public static class Line {
+        private String text;
+        private int textWidth;
+        private int boxWidth;
+        private int boxHeight;
+
+        /**
+         * Constructor of the Line class, measures the line.
+         *
+         * @param text The text of the line.
+         * @param font The font the line is drawn with (null if headless).
+         */
+        private Line(String text, TrueTypeFont font) {
+            this.text = text;
+            if (font != null) {
+                textWidth = font.getWidth(text);
+                boxWidth = textWidth + 4;
+                boxHeight = font.getLineHeight() + 2;
+            }
+        }
+
+        /**
+         * @return The text of the line.
+         */
+        public String getText() { return text; }
+
+        /**
+         * @return Width of the text (px).
+         */
+        public int getTextWidth() { return textWidth; }
+
+        /**
+         * @return Width of the box, the text and a 2 px border on both sides (px).
+         */
+        public int getBoxWidth() { return boxWidth; }
+
+        /**
+         * @return Height of the box, the text and a 1 px border above and below (px).
+         */
+        public int getBoxHeight() { return boxHeight; }
+    }
+
+    // The tables by character type
+    private static HashMap<String, DialogueTable> tables = new HashMap<>();
+
+    // The lines of every branch, in the order of the file
+    private HashMap<String, Line[]> branches;
+    private ArrayList<String> triggerItems;
+
+    /**
+     * Constructor of the DialogueTable class, reads the lines of a dialogue.txt-file.
+     *
+     * @param fileLines The lines of the file (null if there is no file).
+     * @param font The font the lines are drawn with (null if headless).
+     */
+    public DialogueTable(ArrayList<String> fileLines, TrueTypeFont font) {
+        branches = new HashMap<>();
+        triggerItems = new ArrayList<>();
+        String branchName = null;
+        ArrayList<Line> branchLines = new ArrayList<>();
+        // The first line only lists the branches, they are found by their "[NAME]:" lines
+        for (int i = 1; fileLines != null && i < fileLines.size(); i++) {
+            String line = fileLines.get(i);
+            if (line.trim().endsWith(":")) {
+                addBranch(branchName, branchLines);
+                branchName = line.trim().substring(0, line.trim().length() - 1);
+                branchLines = new ArrayList<>();
+            } else if (branchName != null) {
+                branchLines.add(new Line(line, font));
+            }
+        }
+        addBranch(branchName, branchLines);
+        if (!branches.containsKey(DEFAULT_BRANCH)) {
+            branches.put(DEFAULT_BRANCH, new Line[0]);
+        }
+    }
+
+    /**
+     * Method used to get the table of a character type, read the first time it is asked for.
+     *
+     * @param characterType Name of the character folder, i.e "tabari".
+     * @return The table, without any lines if the type doesn't have a dialogue.txt-file.
+     */
+    public static DialogueTable get(String characterType) {
+        DialogueTable table = tables.get(characterType);
+        if (table == null) {
+            table = new DialogueTable(Tools.readFileToArray("res/characters/" + characterType
+                    + "/dialogue.txt"), FontRegistry.getDefault());
+            tables.put(characterType, table);
+        }
+        return table;
+    }
+
+    /**
+     * Adds a branch that has been read.
+     *
+     * @param name Name of the branch, null if no branch has been read yet.
+     * @param lines The lines of the branch.
+     */
+    private void addBranch(String name, ArrayList<Line> lines) {
+        if (name == null) {
+            return;
+        }
+        branches.put(name, lines.toArray(new Line[0]));
+        if (!name.equals(DEFAULT_BRANCH)) {
+            triggerItems.add(name);
+        }
+    }
+
+    /**
+     * @param name Name of the branch, DEFAULT_BRANCH or the name of an item.
+     * @return The lines of the branch, null if there is no such branch.
+     */
+    public Line[] getBranch(String name) { return branches.get(name); }
+
+    /**
+     * @return The names of the items that have a branch, in the order of the file.
+     */
+    public ArrayList<String> getTriggerItems() { return triggerItems; }
+}
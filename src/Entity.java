@@ -3,7 +3,6 @@ import org.newdawn.slick.SlickException;
 import org.newdawn.slick.TrueTypeFont;
 import org.newdawn.slick.geom.Rectangle;
 
-import java.awt.*;
 import java.util.ArrayList;
 
 /**
@@ -14,12 +13,14 @@ import java.util.ArrayList;
  * @version 0.1
  */
 public class Entity {
+    private int id;
     private String name;
     private String type;
     private Rectangle rectangle;
-    private ArrayList<Animation> animationArray;
-    private boolean frozen;
-    private TrueTypeFont font;
+    // Location at the start of the current tick, used to interpolate when rendering
+    private float previousX;
+    private float previousY;
+    private AnimationState animationState;
 
     /**
      *
@@ -32,11 +33,12 @@ public class Entity {
             throws SlickException {
         this.name = name;
         this.rectangle = rectangle;
+        previousX = rectangle.getX();
+        previousY = rectangle.getY();
         this.type = type;
-        font = new TrueTypeFont(new Font("Arial", Font.BOLD, 10), true);
-        frozen = false;
+        id = EntityRegistry.register(this);
 
-        animationArray = Tools.createAnimation(this.type, this.name);
+        animationState = new AnimationState(Tools.createAnimation(this.type, this.name));
     }
 
     /**
@@ -48,6 +50,42 @@ public class Entity {
         return rectangle;
     }
 
+    /**
+     * Method used to save the location of the entity at the start of a tick, so rendering can
+     * interpolate between the previous and the current location.
+     */
+    public void savePreviousLocation() {
+        previousX = rectangle.getX();
+        previousY = rectangle.getY();
+    }
+
+    /**
+     * Method used to get the x-coordinate the entity should be rendered at.
+     *
+     * @param alpha How far into the next tick the frame is rendered (0 to 1).
+     * @return The x-coordinate between the previous and the current location.
+     */
+    public float getRenderX(float alpha) {
+        return previousX + (rectangle.getX() - previousX) * alpha;
+    }
+
+    /**
+     * Method used to get the y-coordinate the entity should be rendered at.
+     *
+     * @param alpha How far into the next tick the frame is rendered (0 to 1).
+     * @return The y-coordinate between the previous and the current location.
+     */
+    public float getRenderY(float alpha) {
+        return previousY + (rectangle.getY() - previousY) * alpha;
+    }
+
+    /**
+     * Method used to get the id of the entity, given when it was created.
+     *
+     * @return Int id of the entity.
+     */
+    public int getId() { return id; }
+
     /**
      * Method used to get the name of the entity.
      *
@@ -56,30 +94,54 @@ public class Entity {
     protected String getName() { return name; }
 
     /**
-     * Method used to get the Font of the entity.
+     * Method used to get the Font of the entity, shared by all entities.
      *
-     * @return Font of the entity.
+     * @return Font of the entity (null if headless).
      */
-    protected TrueTypeFont getFont() { return font; }
+    protected TrueTypeFont getFont() { return FontRegistry.getDefault(); }
 
     /**
      * Method used to get if the entity is frozen or not.
      *
      * @return Boolean according to the current frozen/not frozen state of entity.
      */
-    protected boolean isFrozen() { return frozen; }
+    protected boolean isFrozen() { return animationState.isFrozen(); }
 
     /**
      * Method used to set an entity into the frozen state.
      *
      * @param value Boolean true/false for fronzen/not frozen.
      */
-    protected void setFrozen(boolean value) { frozen = value; }
+    protected void setFrozen(boolean value) { animationState.setFrozen(value); }
+
+    /**
+     * Method used to give back the shared frames of the animations of the entity, when the
+     * entity is gone from the world.
+     *
+     * @throws SlickException If a texture can't be destroyed.
+     */
+    public void releaseAnimations() throws SlickException {
+        Tools.releaseAnimation(type, name);
+    }
+
+    /**
+     * Method used to move the animation of the entity forward, once per tick.
+     *
+     * @param delta Length of the tick (ms).
+     */
+    public void updateAnimation(int delta) { animationState.update(delta); }
 
     /**
      * Method used to get the animation array of an entity.
      *
      * @return ArrayList of animations which the entity has. Usually up/down/left/right/default.
      */
-    protected ArrayList<Animation> getAnimationArray() { return animationArray; }
+    protected ArrayList<Animation> getAnimationArray() { return animationState.getAnimations(); }
+
+    /**
+     * Method used to get the animation state of an entity, its animations and if they are frozen.
+     *
+     * @return AnimationState of the entity.
+     */
+    protected AnimationState getAnimationState() { return animationState; }
 }
@@ -0,0 +1,68 @@
+import java.util.ArrayList;
+
+/**
+ * The EntityRegistry class gives every entity a small whole number id when it is created, the
+ * index of the entity in the registry. Entities that refer to each other, like a projectile and
+ * the character it belongs to, keep the id instead of the name, so finding the other entity is
+ * an array lookup instead of a search. It is only used from the thread running the game.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class EntityRegistry {
+    // The entities by id, null for entities that are gone from the world
+    private static ArrayList<Entity> entities = new ArrayList<>();
+
+    /**
+     * Method used to register a new entity.
+     *
+     * @param entity The entity.
+     * @return The id of the entity.
+     */
+    public static int register(Entity entity) {
+        int id = entities.size();
+        entities.add(entity);
+        return id;
+    }
+
+    /**
+     * Method used to remove an entity that is gone from the world, its id is not given out again.
+     *
+     * @param id The id of the entity.
+     */
+    public static void release(int id) {
+        if (get(id) != null) {
+            entities.set(id, null);
+        }
+    }
+
+    /**
+     * @param id The id of an entity.
+     * @return The entity, null if there is no entity with the id or it is gone from the world.
+     */
+    public static Entity get(int id) {
+        return id >= 0 && id < entities.size() ? entities.get(id) : null;
+    }
+
+    /**
+     * @param id The id of a character.
+     * @return The character, null if there is no character with the id or it is gone from the
+     * world.
+     */
+    public static Character getCharacter(int id) {
+        Entity entity = get(id);
+        return entity instanceof Character ? (Character)entity : null;
+    }
+
+    /**
+     * @return The number of ids given out.
+     */
+    public static int getCount() { return entities.size(); }
+
+    /**
+     * Removes every entity, done when a new world is created.
+     */
+    public static void reset() {
+        entities.clear();
+    }
+}
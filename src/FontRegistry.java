@@ -0,0 +1,63 @@
+import org.newdawn.slick.TrueTypeFont;
+
+import java.awt.Font;
+import java.util.HashMap;
+
+/**
+ * The FontRegistry class shares the fonts of the game. Every face and size is built once, the
+ * first time it is asked for, and is then used by every entity that draws text.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class FontRegistry {
+    // The font used for names, health and dialogue
+    public static final String DEFAULT_FACE = "Arial";
+    public static final int DEFAULT_STYLE = Font.BOLD;
+    public static final int DEFAULT_SIZE = 10;
+
+    // The fonts built so far, by "face:style:size"
+    private static HashMap<String, TrueTypeFont> fonts = new HashMap<>();
+
+    // The default font, kept apart since it's asked for by every entity every frame
+    private static TrueTypeFont defaultFont;
+
+    /**
+     * Method used to get a font, building it the first time it is asked for. Fonts are textures,
+     * so no font is built without a display.
+     *
+     * @param face Name of the font face, i.e "Arial".
+     * @param style Style of the font, i.e Font.BOLD.
+     * @param size Size of the font.
+     * @return The font, or null if headless.
+     */
+    public static TrueTypeFont get(String face, int style, int size) {
+        if (Tools.isHeadless()) {
+            return null;
+        }
+        String key = face + ":" + style + ":" + size;
+        TrueTypeFont font = fonts.get(key);
+        if (font == null) {
+            font = new TrueTypeFont(new Font(face, style, size), true);
+            fonts.put(key, font);
+        }
+        return font;
+    }
+
+    /**
+     * Method used to get the default font, built the first time it is asked for.
+     *
+     * @return The default font, or null if headless.
+     */
+    public static TrueTypeFont getDefault() {
+        if (defaultFont == null) {
+            defaultFont = get(DEFAULT_FACE, DEFAULT_STYLE, DEFAULT_SIZE);
+        }
+        return defaultFont;
+    }
+
+    /**
+     * @return The number of fonts built so far.
+     */
+    public static int getFontCount() { return fonts.size(); }
+}
@@ -0,0 +1,29 @@
+/**
+ * The GameClock class is the time of the simulation. It doesn't follow the wall clock, it only
+ * moves forward when the world is updated, by the length of every tick. Running the same ticks
+ * therefore always gives the same times, however fast or slow they run.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class GameClock {
+    // The current time of the simulation (ms)
+    private static long time = 0;
+
+    /**
+     * @return The current time of the simulation (ms).
+     */
+    public static long getTime() { return time; }
+
+    /**
+     * Moves the clock forward, done once per tick.
+     *
+     * @param delta Length of the tick (ms).
+     */
+    public static void advance(int delta) { time += delta; }
+
+    /**
+     * Sets the clock back to zero, done when a new world is created.
+     */
+    public static void reset() { time = 0; }
+}
@@ -1,5 +1,3 @@
-import java.util.Date;
-
 /**
  * The GameState class, contains information about the current state of the game. If inventory is
  * up, if the player is in dialogue etc.
@@ -11,8 +9,6 @@ import java.util.Date;
 public class GameState {
 
     private String currentMode;
-    // Records the time at the moment when the player has died
-    private long endTime;
 
     /**
      * Constructor of the GameState object.
@@ -66,7 +62,6 @@ public class GameState {
      */
     public void gameOver() {
         currentMode = "gameover";
-        endTime = new Date().getTime();
     }
 
     /**
@@ -74,15 +69,5 @@ public class GameState {
      */
     public void winGame() {
         currentMode = "wingame";
-        endTime = new Date().getTime();
-    }
-
-    /**
-     * Method used to get the end time (time when the player has died).
-     *
-     * @return Time when the player has died (in milliseconds).
-     */
-    public long getEndTime() {
-        return endTime;
     }
 }
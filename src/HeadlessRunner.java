@@ -0,0 +1,70 @@
+import org.newdawn.slick.SlickException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * The HeadlessRunner class runs the game world without a display. The rooms, characters,
+ * movement and dialogue are loaded without any images or fonts, and the world is updated as fast
+ * as possible with the keys coming from a script. Used to load-test the simulation.
+ *
+ * Usage: java HeadlessRunner [script file] [number of ticks] [recording file]
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class HeadlessRunner {
+
+    /**
+     * The main method, loads the world and runs the script.
+     *
+     * @param args Command-line arguments, the script file, the number of ticks to run and
+     *             optionally a file to record the input to.
+     * @throws SlickException Generic exception.
+     * @throws IOException If the recording can't be written.
+     */
+    public static void main(String[] args) throws SlickException, IOException {
+        String scriptPath = args.length > 0 ? args[0] : "res/scripts/walk.txt";
+        int tickLimit = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+
+        ArrayList<String> script = Tools.readFileToArray(scriptPath);
+        if (script == null) {
+            System.out.println("Could not read script " + scriptPath);
+            return;
+        }
+
+        // Load the world without a display
+        Tools.setHeadless(true);
+        long loadStart = System.nanoTime();
+        GameState gameState = new GameState("startscreen");
+        World world = new World(gameState);
+        gameState.startGame();
+        long loadTime = System.nanoTime() - loadStart;
+
+        // Run the world as fast as possible until the ticks are done or the game is over
+        InputSource input = new ScriptedInput(script);
+        InputRecorder recorder = null;
+        if (args.length > 2) {
+            recorder = new InputRecorder(input, args[2]);
+            input = recorder;
+        }
+        long runStart = System.nanoTime();
+        int ticks = 0;
+        while (ticks < tickLimit && !gameState.getCurrentState().equals("gameover")
+                && !gameState.getCurrentState().equals("wingame")) {
+            world.updateWorld(input, Core.TICK_LENGTH);
+            ticks++;
+        }
+        long runTime = System.nanoTime() - runStart;
+        if (recorder != null) {
+            recorder.close();
+        }
+
+        System.out.println("Loaded world in " + loadTime / 1000000 + " ms");
+        System.out.println("Ran " + ticks + " ticks (" + (long)ticks * Core.TICK_LENGTH / 1000
+                + " s of game time) in " + runTime / 1000000 + " ms");
+        System.out.println("Ticks per second: " + (long)(ticks / (runTime / 1e9)));
+        System.out.println("Final state: " + gameState.getCurrentState());
+        System.out.println("World checksum: " + Integer.toHexString(ReplayRunner.checksum(world)));
+    }
+}
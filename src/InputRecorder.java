@@ -0,0 +1,73 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * The InputRecorder class passes on the keys of another input source and writes them to a file,
+ * one record per tick. The file can be replayed with InputReplay.
+ *
+ * The file starts with the magic number and the version, followed by one record per tick: the
+ * length of the tick, the keys held down and the keys pressed (all unsigned shorts).
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class InputRecorder extends InputSource {
+    // "GORE" in ASCII, and the version of the file format
+    public static final int MAGIC = 0x474F5245;
+    public static final int VERSION = 1;
+
+    private InputSource source;
+    private DataOutputStream out;
+
+    /**
+     * Constructor of the InputRecorder class, creates the file.
+     *
+     * @param source The input source to record.
+     * @param filePath Path of the file to record to.
+     * @throws IOException If the file can't be created.
+     */
+    public InputRecorder(InputSource source, String filePath) throws IOException {
+        this.source = source;
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filePath)));
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+    }
+
+    /**
+     * Reads the keys from the recorded source and writes them to the file.
+     *
+     * @param delta Length of the tick (ms).
+     */
+    @Override
+    public void poll(int delta) {
+        source.poll(delta);
+        setKeys(source.getDownMask(), source.getPressedMask());
+        if (out != null) {
+            try {
+                out.writeShort(delta);
+                out.writeShort(getDownMask());
+                out.writeShort(getPressedMask());
+            } catch (IOException ex) {
+                // Stop recording, but keep the game running
+                System.out.println("Recording stopped: " + ex.getMessage());
+                close();
+            }
+        }
+    }
+
+    /**
+     * Writes what is left to the file and closes it.
+     */
+    public void close() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException ex) {
+                System.out.println("Could not close recording: " + ex.getMessage());
+            }
+            out = null;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * The InputReplay class reads the keys from a file written by InputRecorder. Every call to next
+ * moves to the next recorded tick, which then gives the length of the tick and the keys.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class InputReplay extends InputSource {
+    private DataInputStream in;
+
+    // The current record
+    private int delta;
+    private int downMask;
+    private int pressedMask;
+
+    /**
+     * Constructor of the InputReplay class, opens the file.
+     *
+     * @param filePath Path of the recorded file.
+     * @throws IOException If the file can't be read or isn't a recording.
+     */
+    public InputReplay(String filePath) throws IOException {
+        in = new DataInputStream(new BufferedInputStream(new FileInputStream(filePath)));
+        if (in.readInt() != InputRecorder.MAGIC) {
+            in.close();
+            throw new IOException(filePath + " is not a recording");
+        }
+        int version = in.readUnsignedShort();
+        if (version != InputRecorder.VERSION) {
+            in.close();
+            throw new IOException(filePath + " has unsupported version " + version);
+        }
+    }
+
+    /**
+     * Moves to the next recorded tick.
+     *
+     * @return True if there was another tick, false if the recording has ended.
+     * @throws IOException If the file can't be read.
+     */
+    public boolean next() throws IOException {
+        try {
+            delta = in.readUnsignedShort();
+            downMask = in.readUnsignedShort();
+            pressedMask = in.readUnsignedShort();
+            return true;
+        } catch (EOFException ex) {
+            // A recording cut off in the middle of a record ends at the last whole record
+            in.close();
+            return false;
+        }
+    }
+
+    /**
+     * @return The length of the current tick (ms).
+     */
+    public int getDelta() { return delta; }
+
+    /**
+     * Gives the keys of the current tick.
+     *
+     * @param delta Length of the tick (ms).
+     */
+    @Override
+    public void poll(int delta) {
+        setKeys(downMask, pressedMask);
+    }
+}
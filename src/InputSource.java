@@ -0,0 +1,97 @@
+import org.newdawn.slick.Input;
+
+/**
+ * The InputSource class is where the world reads the keys from. Once per tick the state of the
+ * keys the game uses is read into a snapshot, which the world then checks. The keys can come from
+ * the keyboard or from somewhere else, like a script.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public abstract class InputSource {
+    // The keys the game uses, and the names used for them in scripts
+    public static final int[] KEYS = {
+            Input.KEY_UP, Input.KEY_DOWN, Input.KEY_LEFT, Input.KEY_RIGHT,
+            Input.KEY_SPACE, Input.KEY_I, Input.KEY_M, Input.KEY_D,
+            Input.KEY_P, Input.KEY_S, Input.KEY_A};
+    public static final String[] KEY_NAMES = {
+            "UP", "DOWN", "LEFT", "RIGHT", "SPACE", "I", "M", "D", "P", "S", "A"};
+
+    // One bit per key in KEYS, for the keys held down and the keys pressed this tick
+    private int downMask;
+    private int pressedMask;
+
+    /**
+     * Reads the state of the keys for the next tick.
+     *
+     * @param delta Length of the tick (ms).
+     */
+    public abstract void poll(int delta);
+
+    /**
+     * Method used to check if a key is held down this tick.
+     *
+     * @param key The key code, from Input.
+     * @return True if the key is held down.
+     */
+    public boolean isKeyDown(int key) {
+        return (downMask & keyBit(key)) != 0;
+    }
+
+    /**
+     * Method used to check if a key was pressed this tick.
+     *
+     * @param key The key code, from Input.
+     * @return True if the key was pressed.
+     */
+    public boolean isKeyPressed(int key) {
+        return (pressedMask & keyBit(key)) != 0;
+    }
+
+    /**
+     * @return The keys held down this tick, one bit per key in KEYS.
+     */
+    public int getDownMask() { return downMask; }
+
+    /**
+     * @return The keys pressed this tick, one bit per key in KEYS.
+     */
+    public int getPressedMask() { return pressedMask; }
+
+    /**
+     * Sets the state of the keys for this tick, used by poll.
+     *
+     * @param downMask The keys held down, one bit per key in KEYS.
+     * @param pressedMask The keys pressed, one bit per key in KEYS.
+     */
+    protected void setKeys(int downMask, int pressedMask) {
+        this.downMask = downMask;
+        this.pressedMask = pressedMask;
+    }
+
+    /**
+     * @param key The key code, from Input.
+     * @return The bit of the key in the masks, 0 if the game doesn't use the key.
+     */
+    private static int keyBit(int key) {
+        for (int i = 0; i < KEYS.length; i++) {
+            if (KEYS[i] == key) {
+                return 1 << i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @param name The name of a key, as in KEY_NAMES.
+     * @return The bit of the key in the masks, 0 if there is no key with the name.
+     */
+    public static int keyBit(String name) {
+        for (int i = 0; i < KEY_NAMES.length; i++) {
+            if (KEY_NAMES[i].equals(name)) {
+                return 1 << i;
+            }
+        }
+        return 0;
+    }
+}
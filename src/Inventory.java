@@ -1,30 +1,58 @@
+import org.newdawn.slick.Animation;
 import org.newdawn.slick.Color;
 import org.newdawn.slick.Graphics;
 import org.newdawn.slick.geom.Rectangle;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 
 /**
  * The Inventory class. This class is used to hold all the items that a character would have in its
- * inventory. The inventory handles drawing itself.
+ * inventory, up to its capacity. The items are kept in the order they were added, and counted by
+ * name so checking for an item doesn't search the inventory. Listeners are told when items are
+ * added or removed. The inventory handles drawing itself.
  *
  * @author Oskar Eriksson and Gustave Rousselet
  * @version 0.1
  */
 public class Inventory {
+    // No capacity, for inventories that can hold any number of items
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    // The items in the order they were added, the slots drawn in the inventory
     private ArrayList<Item> items;
+    private List<Item> itemsView;
+    // How many items of every name are in the inventory, to check for an item without a search
+    private HashMap<String, Integer> itemCounts;
+    private int capacity;
     private Rectangle inventoryOutline;
     private Rectangle inventoryItemOutline;
     private int inventorySelectedItemNumber;
+    private ArrayList<InventoryListener> listeners;
 
     /**
-     * Constructor of the Inventory class. Creates the inventory object. All inventorys are the same.
+     * Constructor of the Inventory class. Creates an inventory that can hold any number of items.
      */
     public Inventory() {
+        this(UNLIMITED);
+    }
+
+    /**
+     * Constructor of the Inventory class. Creates an inventory that can hold a number of items.
+     *
+     * @param capacity The number of items the inventory can hold.
+     */
+    public Inventory(int capacity) {
+        this.capacity = capacity;
         items = new ArrayList<>();
+        itemsView = Collections.unmodifiableList(items);
+        itemCounts = new HashMap<>();
         inventoryOutline = new Rectangle(Core.WIDTH/2 + 100, Core.HEIGHT/2 - 200, 100, 160);
         inventoryItemOutline = new Rectangle(Core.WIDTH/2 + 100, Core.HEIGHT/2 - 200, 16, 16);
         inventorySelectedItemNumber = 0;
+        listeners = new ArrayList<>();
     }
 
     /**
@@ -37,20 +65,116 @@ public class Inventory {
     }
 
     /**
-     * Method used to an an Item to the inventory.
+     * Method used to get the number of items the inventory can hold.
+     *
+     * @return Int the capacity of the inventory, UNLIMITED if there is no limit.
+     */
+    public int getCapacity() { return capacity; }
+
+    /**
+     * Method used to set the number of items the inventory can hold. Items already in the
+     * inventory are kept, even if there are more of them.
+     *
+     * @param capacity The number of items the inventory can hold.
+     */
+    public void setCapacity(int capacity) { this.capacity = capacity; }
+
+    /**
+     * Method used to check if the inventory can't hold any more items.
+     *
+     * @return Boolean true if the inventory is full.
+     */
+    public boolean isFull() { return items.size() >= capacity; }
+
+    /**
+     * Method used to add an Item to the inventory, if there is room for it.
      *
      * @param item Item to be added to inventory.
+     * @return Boolean true if the Item was added, false if the inventory is full.
      */
-    public void addItem(Item item) {
+    public boolean addItem(Item item) {
+        if (isFull()) {
+            return false;
+        }
         items.add(item);
+        Integer count = itemCounts.get(item.getName());
+        itemCounts.put(item.getName(), count == null ? 1 : count + 1);
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).itemAdded(this, item);
+        }
+        return true;
     }
 
     /**
-     * Method used to get an ArrayList of Items currently in Inventory.
+     * Method used to remove an Item from the inventory.
      *
-     * @return ArrayList of items currently in Inventory.
+     * @param itemIndex The index of the Item in the inventory.
+     * @return The Item that was removed.
      */
-    public ArrayList<Item> getItems() { return items;}
+    public Item removeItem(int itemIndex) {
+        Item item = items.remove(itemIndex);
+        int count = itemCounts.get(item.getName());
+        if (count == 1) {
+            itemCounts.remove(item.getName());
+        } else {
+            itemCounts.put(item.getName(), count - 1);
+        }
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).itemRemoved(this, item);
+        }
+        return item;
+    }
+
+    /**
+     * Method used to remove an Item from the inventory.
+     *
+     * @param item The Item to remove.
+     * @return True if the Item was in the inventory.
+     */
+    public boolean removeItem(Item item) {
+        int itemIndex = items.indexOf(item);
+        if (itemIndex < 0) {
+            return false;
+        }
+        removeItem(itemIndex);
+        return true;
+    }
+
+    /**
+     * Method used to be told when items are added or removed.
+     *
+     * @param listener The listener.
+     */
+    public void addListener(InventoryListener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    /**
+     * Method used to stop being told when items are added or removed.
+     *
+     * @param listener The listener.
+     */
+    public void removeListener(InventoryListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Method used to get the Items currently in Inventory. Items must be added and removed
+     * through the inventory, so the list can't be changed.
+     *
+     * @return List of items currently in Inventory, in the order they were added.
+     */
+    public List<Item> getItems() { return itemsView; }
+
+    /**
+     * Method used to get the Item in a slot of the inventory.
+     *
+     * @param itemIndex The index of the slot.
+     * @return The Item in the slot.
+     */
+    public Item getItem(int itemIndex) { return items.get(itemIndex); }
 
     /**
      * Method used to check if an Item is in the inventory based on String itemName.
@@ -59,13 +183,36 @@ public class Inventory {
      * @return Boolean based on if Item is in Inventory.
      */
     public boolean checkIfInventoryContains(String itemName) {
-        boolean contains = false;
+        return itemCounts.containsKey(itemName);
+    }
+
+    /**
+     * Method used to get how many Items with a name are in the inventory.
+     *
+     * @param itemName String the name of the Item.
+     * @return Int the number of Items with the name.
+     */
+    public int getItemCount(String itemName) {
+        Integer count = itemCounts.get(itemName);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Method used to get an Item in the inventory based on String itemName.
+     *
+     * @param itemName String the name of the Item.
+     * @return The first Item with the name, null if there is none.
+     */
+    public Item getItemByName(String itemName) {
+        if (!itemCounts.containsKey(itemName)) {
+            return null;
+        }
         for (Item item : items) {
             if (item.getName().equals(itemName)) {
-                contains = true;
+                return item;
             }
         }
-        return contains;
+        return null;
     }
 
     /**
@@ -102,8 +249,9 @@ public class Inventory {
      * Draws the inventory outline and the objects in the inventory on the screen.
      *
      * @param graphics Graphics component used to draw.
+     * @param queue The render queue, used for the images of the items.
      */
-    public void drawInventory(Graphics graphics) {
+    public void drawInventory(Graphics graphics, RenderQueue queue) {
         // Fill inventory color
         graphics.setColor(Color.lightGray);
         graphics.fill(inventoryOutline);
@@ -113,11 +261,18 @@ public class Inventory {
         graphics.draw(inventoryItemOutline);
         // Move selection based on the selected item number
         inventoryItemOutline.setY(Core.HEIGHT/2-200 + inventorySelectedItemNumber*16);
-        for (int i = 0; i < getItems().size(); i ++) {
-            // Draw all items in inventory, moving down 1 image per item 
-            Item itemDisplayed = getItems().get(i);
-            graphics.drawImage(itemDisplayed.getAnimationArray().get(0).getImage(0), Core
-                    .WIDTH/2 + 100, Core.HEIGHT/2 - 200 + 16*i);
+        for (int i = 0; i < items.size(); i ++) {
+            // Draw all items in inventory, moving down 1 image per item
+            Animation animation = items.get(i).getAnimationArray().get(0);
+            if (animation.getFrameCount() > 0) {
+                queue.submit(RenderQueue.LAYER_INVENTORY, animation.getImage(0), Core
+                        .WIDTH/2 + 100, Core.HEIGHT/2 - 200 + 16*i);
+            }
+        }
+        queue.flush();
+        // The names are drawn after the images
+        for (int i = 0; i < items.size(); i ++) {
+            Item itemDisplayed = items.get(i);
             itemDisplayed.getFont().drawString(Core.WIDTH/2 + 100 + 16, Core
                     .HEIGHT/2 - 200 + 16*i, itemDisplayed.getName(), Color
                     .blue);
@@ -0,0 +1,24 @@
+/**
+ * An InventoryListener is told when items are added to or removed from an inventory, so it can
+ * react to the change instead of looking through the inventory every frame.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public interface InventoryListener {
+    /**
+     * Runs after an item has been added to the inventory.
+     *
+     * @param inventory The inventory.
+     * @param item The item that was added.
+     */
+    void itemAdded(Inventory inventory, Item item);
+
+    /**
+     * Runs after an item has been removed from the inventory.
+     *
+     * @param inventory The inventory.
+     * @param item The item that was removed.
+     */
+    void itemRemoved(Inventory inventory, Item item);
+}
@@ -0,0 +1,103 @@
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The ManifestGenerator class generates the asset manifest, the list of every animation in the
+ * game and its frames. Run it again after adding or removing frames. Frame durations that were
+ * changed by hand in the old manifest are kept for the frames that still exist.
+ *
+ * Usage: java ManifestGenerator
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class ManifestGenerator {
+    // The folders with animations, and the file name of a frame, [NAME]-[NUMBER].png
+    private static final String[] FOLDERS = {"res/characters", "res/items", "res/projectiles"};
+    private static final Pattern FRAME_PATTERN = Pattern.compile("(.+)-(\\d+)\\.png");
+
+    /**
+     * The main method, generates the manifest.
+     *
+     * @param args Command-line arguments, not used.
+     * @throws FileNotFoundException If the manifest can't be written.
+     */
+    public static void main(String[] args) throws FileNotFoundException {
+        HashMap<String, int[]> oldAnimations = AssetManifest.read(AssetManifest.MANIFEST_PATH);
+
+        // Find the highest frame number of every animation
+        HashMap<String, Integer> frameCounts = new HashMap<>();
+        for (String folder : FOLDERS) {
+            findFrames(new File(folder), frameCounts);
+        }
+
+        ArrayList<String> pathPrefixes = new ArrayList<>(frameCounts.keySet());
+        Collections.sort(pathPrefixes);
+
+        PrintWriter out = new PrintWriter(AssetManifest.MANIFEST_PATH);
+        out.println("# Generated by ManifestGenerator, the frame durations (ms) may be changed");
+        int animationTotal = 0;
+        int frameTotal = 0;
+        for (String pathPrefix : pathPrefixes) {
+            // The frames are numbered from 1, an animation ends at the first missing number
+            int frames = 0;
+            while (frames < frameCounts.get(pathPrefix)
+                    && new File(pathPrefix + "-" + (frames + 1) + ".png").exists()) {
+                frames++;
+            }
+            if (frames == 0) {
+                continue;
+            }
+            int[] oldDurations = oldAnimations.get(pathPrefix);
+            StringBuilder line = new StringBuilder(pathPrefix);
+            for (int i = 0; i < frames; i++) {
+                line.append(' ').append(oldDurations != null && i < oldDurations.length
+                        ? oldDurations[i] : AssetManifest.DEFAULT_FRAME_DURATION);
+            }
+            out.println(line);
+            animationTotal++;
+            frameTotal += frames;
+        }
+        out.close();
+        System.out.println("Wrote " + animationTotal + " animations with " + frameTotal
+                + " frames to " + AssetManifest.MANIFEST_PATH);
+    }
+
+    /**
+     * Finds the frames in a folder and its subfolders, folders named "unused" are skipped.
+     *
+     * @param folder The folder.
+     * @param frameCounts The highest frame number of every animation, by path without the frame
+     *                    number.
+     */
+    private static void findFrames(File folder, HashMap<String, Integer> frameCounts) {
+        File[] files = folder.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                if (!file.getName().equals("unused")) {
+                    findFrames(file, frameCounts);
+                }
+                continue;
+            }
+            Matcher matcher = FRAME_PATTERN.matcher(file.getName());
+            if (matcher.matches()) {
+                // Always "/" in the manifest, the same as the paths the game builds
+                String pathPrefix = folder.getPath().replace(File.separatorChar, '/') + "/"
+                        + matcher.group(1);
+                int number = Integer.parseInt(matcher.group(2));
+                if (!frameCounts.containsKey(pathPrefix) || frameCounts.get(pathPrefix) < number) {
+                    frameCounts.put(pathPrefix, number);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,380 @@
+import org.newdawn.slick.SlickException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The MapData class holds everything in a Tiled map that the game needs, the tile layers, the
+ * tile properties and which images the tiles come from. It is read straight from the .tmx-file
+ * and never touches OpenGL, so maps can be loaded without a display. MapRenderer draws it.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class MapData {
+    private int width;
+    private int height;
+    private int tileWidth;
+    private int tileHeight;
+
+    // The global tile ids of every layer, stored row by row (0 means no tile)
+    private ArrayList<int[]> layers;
+
+    // The tile sets, in the order of their first global tile id
+    private ArrayList<TileSetData> tileSets;
+
+    // The properties of the tiles that have any, by global tile id
+    private HashMap<Integer, HashMap<String, String>> tileProperties;
+
+    // Paths to the .tsx-files of the tile sets that aren't stored in the map
+    private ArrayList<String> tileSetFiles;
+
+    /**
+     * A tile set of the map, the image the tiles are cut from.
+     */
+    public static class TileSetData {
+        private int firstGid;
+        private int tileCount;
+        private int tileWidth;
+        private int tileHeight;
+        private int spacing;
+        private int margin;
+        private int columns;
+        private String imagePath;
+
+        /**
+         * Constructor of the TileSetData class, the fields are filled in when the set is read.
+         */
+        private TileSetData() { }
+
+        /**
+         * Constructor of the TileSetData class, used for tile sets read from a baked room.
+         *
+         * @param firstGid The global tile id of the first tile in the set.
+         * @param tileCount The number of tiles in the set.
+         * @param tileWidth Width of a tile in the set (px).
+         * @param tileHeight Height of a tile in the set (px).
+         * @param spacing Space between the tiles in the image (px).
+         * @param margin Space around the tiles in the image (px).
+         * @param columns Number of tiles in a row of the image.
+         * @param imagePath Path to the image of the set.
+         */
+        public TileSetData(int firstGid, int tileCount, int tileWidth, int tileHeight,
+                           int spacing, int margin, int columns, String imagePath) {
+            this.firstGid = firstGid;
+            this.tileCount = tileCount;
+            this.tileWidth = tileWidth;
+            this.tileHeight = tileHeight;
+            this.spacing = spacing;
+            this.margin = margin;
+            this.columns = columns;
+            this.imagePath = imagePath;
+        }
+
+        /**
+         * @return The global tile id of the first tile in the set.
+         */
+        public int getFirstGid() { return firstGid; }
+
+        /**
+         * @return The number of tiles in the set.
+         */
+        public int getTileCount() { return tileCount; }
+
+        /**
+         * @return Width of a tile in the set (px).
+         */
+        public int getTileWidth() { return tileWidth; }
+
+        /**
+         * @return Height of a tile in the set (px).
+         */
+        public int getTileHeight() { return tileHeight; }
+
+        /**
+         * @return Space between the tiles in the image (px).
+         */
+        public int getSpacing() { return spacing; }
+
+        /**
+         * @return Space around the tiles in the image (px).
+         */
+        public int getMargin() { return margin; }
+
+        /**
+         * @return Number of tiles in a row of the image.
+         */
+        public int getColumns() { return columns; }
+
+        /**
+         * @return Path to the image of the set.
+         */
+        public String getImagePath() { return imagePath; }
+    }
+
+    /**
+     * Constructor of the MapData class, reads a .tmx-file.
+     *
+     * @param mapPath Path to the .tmx-file.
+     * @throws SlickException If the file can't be read.
+     */
+    public MapData(String mapPath) throws SlickException {
+        layers = new ArrayList<>();
+        tileSets = new ArrayList<>();
+        tileProperties = new HashMap<>();
+        tileSetFiles = new ArrayList<>();
+
+        try {
+            File mapFile = new File(mapPath);
+            Element root = readXml(mapFile);
+            width = Integer.parseInt(root.getAttribute("width"));
+            height = Integer.parseInt(root.getAttribute("height"));
+            tileWidth = Integer.parseInt(root.getAttribute("tilewidth"));
+            tileHeight = Integer.parseInt(root.getAttribute("tileheight"));
+
+            NodeList tileSetNodes = root.getElementsByTagName("tileset");
+            for (int i = 0; i < tileSetNodes.getLength(); i++) {
+                readTileSet((Element)tileSetNodes.item(i), mapFile.getParentFile());
+            }
+
+            NodeList layerNodes = root.getElementsByTagName("layer");
+            for (int i = 0; i < layerNodes.getLength(); i++) {
+                layers.add(readLayer((Element)layerNodes.item(i)));
+            }
+        } catch (Exception ex) {
+            throw new SlickException("Failed to read map " + mapPath, ex);
+        }
+    }
+
+    /**
+     * Constructor of the MapData class, used for maps read from a baked room. Baked maps don't
+     * have any tile properties, what the properties describe is baked into the room instead.
+     *
+     * @param width Width of the map (in tiles).
+     * @param height Height of the map (in tiles).
+     * @param tileWidth Width of a tile (px).
+     * @param tileHeight Height of a tile (px).
+     * @param layers The global tile ids of every layer, row by row.
+     * @param tileSets The tile sets, in the order of their first global tile id.
+     */
+    public MapData(int width, int height, int tileWidth, int tileHeight,
+                   ArrayList<int[]> layers, ArrayList<TileSetData> tileSets) {
+        this.width = width;
+        this.height = height;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.layers = layers;
+        this.tileSets = tileSets;
+        tileProperties = new HashMap<>();
+        tileSetFiles = new ArrayList<>();
+    }
+
+    /**
+     * @return Width of the map (in tiles).
+     */
+    public int getWidth() { return width; }
+
+    /**
+     * @return Height of the map (in tiles).
+     */
+    public int getHeight() { return height; }
+
+    /**
+     * @return Width of a tile (px).
+     */
+    public int getTileWidth() { return tileWidth; }
+
+    /**
+     * @return Height of a tile (px).
+     */
+    public int getTileHeight() { return tileHeight; }
+
+    /**
+     * @return Number of tile layers in the map.
+     */
+    public int getLayerCount() { return layers.size(); }
+
+    /**
+     * @return The tile sets of the map.
+     */
+    public ArrayList<TileSetData> getTileSets() { return tileSets; }
+
+    /**
+     * @return Paths to the .tsx-files of the tile sets that aren't stored in the map, empty for
+     * maps read from a baked room.
+     */
+    public ArrayList<String> getTileSetFiles() { return tileSetFiles; }
+
+    /**
+     * @param x X coordinate of the tile (in tiles).
+     * @param y Y coordinate of the tile (in tiles).
+     * @param layer Index of the layer.
+     * @return The global tile id at the location, 0 if there is no tile.
+     */
+    public int getTileId(int x, int y, int layer) {
+        return layers.get(layer)[y * width + x];
+    }
+
+    /**
+     * @param layer Index of the layer.
+     * @return The global tile ids of the layer, row by row.
+     */
+    public int[] getLayer(int layer) { return layers.get(layer); }
+
+    /**
+     * @param tileId Global tile id.
+     * @param propertyName Name of the property.
+     * @param defaultValue Value to return if the tile doesn't have the property.
+     * @return The value of the property.
+     */
+    public String getTileProperty(int tileId, String propertyName, String defaultValue) {
+        HashMap<String, String> properties = tileProperties.get(tileId);
+        if (properties == null || !properties.containsKey(propertyName)) {
+            return defaultValue;
+        }
+        return properties.get(propertyName);
+    }
+
+    /**
+     * Reads an XML file.
+     *
+     * @param file The file to read.
+     * @return The root element of the file.
+     * @throws Exception If the file can't be read or parsed.
+     */
+    private static Element readXml(File file) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setValidating(false);
+        Document document = factory.newDocumentBuilder().parse(file);
+        return document.getDocumentElement();
+    }
+
+    /**
+     * Reads a tile set and the properties of its tiles. Tile sets stored in their own
+     * .tsx-file are read from that file.
+     *
+     * @param element The tileset element of the map.
+     * @param folder The folder of the map, paths are relative to it.
+     * @throws Exception If an external tile set can't be read.
+     */
+    private void readTileSet(Element element, File folder) throws Exception {
+        TileSetData tileSet = new TileSetData();
+        tileSet.firstGid = Integer.parseInt(element.getAttribute("firstgid"));
+        if (!element.getAttribute("source").equals("")) {
+            File tileSetFile = new File(folder, element.getAttribute("source"));
+            tileSetFiles.add(tileSetFile.getPath());
+            element = readXml(tileSetFile);
+            folder = tileSetFile.getParentFile();
+        }
+        tileSet.tileWidth = Integer.parseInt(element.getAttribute("tilewidth"));
+        tileSet.tileHeight = Integer.parseInt(element.getAttribute("tileheight"));
+        tileSet.spacing = readInt(element, "spacing", 0);
+        tileSet.margin = readInt(element, "margin", 0);
+
+        Element image = (Element)element.getElementsByTagName("image").item(0);
+        tileSet.imagePath = new File(folder, image.getAttribute("source")).getPath();
+        int imageWidth = readInt(image, "width", 0);
+        int imageHeight = readInt(image, "height", 0);
+        tileSet.columns = readInt(element, "columns", (imageWidth - 2 * tileSet.margin
+                + tileSet.spacing) / (tileSet.tileWidth + tileSet.spacing));
+        int rows = (imageHeight - 2 * tileSet.margin + tileSet.spacing)
+                / (tileSet.tileHeight + tileSet.spacing);
+        tileSet.tileCount = readInt(element, "tilecount", tileSet.columns * rows);
+
+        NodeList tiles = element.getElementsByTagName("tile");
+        for (int i = 0; i < tiles.getLength(); i++) {
+            Element tile = (Element)tiles.item(i);
+            HashMap<String, String> properties = new HashMap<>();
+            NodeList propertyNodes = tile.getElementsByTagName("property");
+            for (int j = 0; j < propertyNodes.getLength(); j++) {
+                Element property = (Element)propertyNodes.item(j);
+                properties.put(property.getAttribute("name"), property.getAttribute("value"));
+            }
+            tileProperties.put(tileSet.firstGid + Integer.parseInt(tile.getAttribute("id")),
+                    properties);
+        }
+        tileSets.add(tileSet);
+    }
+
+    /**
+     * Reads the tiles of a layer, stored as base64 (compressed or not), csv or xml.
+     *
+     * @param element The layer element of the map.
+     * @return The global tile ids of the layer, row by row.
+     * @throws IOException If the tile data can't be decoded.
+     */
+    private int[] readLayer(Element element) throws IOException {
+        int[] tiles = new int[width * height];
+        Element data = (Element)element.getElementsByTagName("data").item(0);
+        String encoding = data.getAttribute("encoding");
+        String compression = data.getAttribute("compression");
+
+        if (encoding.equals("base64")) {
+            byte[] bytes = Base64.getMimeDecoder().decode(data.getTextContent().trim());
+            InputStream in = new ByteArrayInputStream(bytes);
+            if (compression.equals("gzip")) {
+                in = new GZIPInputStream(in);
+            } else if (compression.equals("zlib")) {
+                in = new InflaterInputStream(in);
+            }
+            // Every tile is a little-endian 32-bit integer
+            for (int i = 0; i < tiles.length; i++) {
+                int tileId = 0;
+                for (int b = 0; b < 4; b++) {
+                    int read = in.read();
+                    if (read < 0) {
+                        throw new IOException("Layer data ended early");
+                    }
+                    tileId |= read << (8 * b);
+                }
+                tiles[i] = tileId & 0x1FFFFFFF;
+            }
+            in.close();
+        } else if (encoding.equals("csv")) {
+            String[] values = data.getTextContent().trim().split("[,\\s]+");
+            for (int i = 0; i < tiles.length; i++) {
+                tiles[i] = (int)(Long.parseLong(values[i]) & 0x1FFFFFFF);
+            }
+        } else {
+            NodeList tileNodes = data.getElementsByTagName("tile");
+            for (int i = 0; i < tiles.length && i < tileNodes.getLength(); i++) {
+                tiles[i] = (int)(Long.parseLong(readString((Element)tileNodes.item(i), "gid", "0"))
+                        & 0x1FFFFFFF);
+            }
+        }
+        return tiles;
+    }
+
+    /**
+     * @param element An XML element.
+     * @param name Name of the attribute.
+     * @param defaultValue Value to return if the attribute is missing.
+     * @return The attribute as an int.
+     */
+    private static int readInt(Element element, String name, int defaultValue) {
+        return Integer.parseInt(readString(element, name, Integer.toString(defaultValue)));
+    }
+
+    /**
+     * @param element An XML element.
+     * @param name Name of the attribute.
+     * @param defaultValue Value to return if the attribute is missing.
+     * @return The attribute.
+     */
+    private static String readString(Element element, String name, String defaultValue) {
+        Node attribute = element.getAttributeNode(name);
+        return attribute != null ? attribute.getNodeValue() : defaultValue;
+    }
+}
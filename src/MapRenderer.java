@@ -0,0 +1,92 @@
+import org.newdawn.slick.Image;
+import org.newdawn.slick.SlickException;
+import org.newdawn.slick.SpriteSheet;
+
+import java.util.ArrayList;
+
+/**
+ * The MapRenderer class draws the tile layers of a MapData. The tile set images are loaded when
+ * the renderer is created, so it must be created on the thread that owns the OpenGL context.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class MapRenderer {
+    private MapData mapData;
+
+    // One sprite sheet per tile set, in the same order as the tile sets of the map
+    private ArrayList<SpriteSheet> sheets;
+
+    /**
+     * Constructor of the MapRenderer class, loads the tile set images.
+     *
+     * @param mapData The map to draw.
+     * @throws SlickException If a tile set image can't be loaded.
+     */
+    public MapRenderer(MapData mapData) throws SlickException {
+        this.mapData = mapData;
+        sheets = new ArrayList<>();
+        for (MapData.TileSetData tileSet : mapData.getTileSets()) {
+            // Tile sets are shared between the rooms that use them
+            Image image = AssetCache.acquireImage(tileSet.getImagePath(), Image.FILTER_NEAREST);
+            sheets.add(new SpriteSheet(image, tileSet.getTileWidth(), tileSet.getTileHeight(),
+                    tileSet.getSpacing(), tileSet.getMargin()));
+        }
+    }
+
+    /**
+     * Draws all layers of the map with the top left corner of the map at a location.
+     *
+     * @param x X location of the map.
+     * @param y Y location of the map.
+     */
+    public void render(int x, int y) {
+        render(x, y, 0, 0, mapData.getWidth(), mapData.getHeight());
+    }
+
+    /**
+     * Draws a range of tiles of all layers, with the top left corner of the map at a location.
+     * Tiles outside of the map are skipped.
+     *
+     * @param x X location of the map.
+     * @param y Y location of the map.
+     * @param firstTileX X coordinate of the first tile to draw (in tiles).
+     * @param firstTileY Y coordinate of the first tile to draw (in tiles).
+     * @param tilesWide Number of tiles to draw in the x-direction.
+     * @param tilesHigh Number of tiles to draw in the y-direction.
+     * @return The number of tiles drawn.
+     */
+    public int render(int x, int y, int firstTileX, int firstTileY, int tilesWide, int tilesHigh) {
+        int startX = Math.max(0, firstTileX);
+        int startY = Math.max(0, firstTileY);
+        int endX = Math.min(mapData.getWidth(), firstTileX + tilesWide);
+        int endY = Math.min(mapData.getHeight(), firstTileY + tilesHigh);
+        int drawn = 0;
+
+        for (int layer = 0; layer < mapData.getLayerCount(); layer++) {
+            // Draw the tiles of one tile set at a time, so every image is only bound once
+            for (int set = 0; set < sheets.size(); set++) {
+                MapData.TileSetData tileSet = mapData.getTileSets().get(set);
+                SpriteSheet sheet = sheets.get(set);
+                int firstGid = tileSet.getFirstGid();
+                int lastGid = firstGid + tileSet.getTileCount();
+
+                sheet.startUse();
+                for (int tileY = startY; tileY < endY; tileY++) {
+                    for (int tileX = startX; tileX < endX; tileX++) {
+                        int tileId = mapData.getTileId(tileX, tileY, layer);
+                        if (tileId >= firstGid && tileId < lastGid) {
+                            int localId = tileId - firstGid;
+                            sheet.renderInUse(x + tileX * mapData.getTileWidth(),
+                                    y + tileY * mapData.getTileHeight(),
+                                    localId % tileSet.getColumns(), localId / tileSet.getColumns());
+                            drawn++;
+                        }
+                    }
+                }
+                sheet.endUse();
+            }
+        }
+        return drawn;
+    }
+}
@@ -0,0 +1,114 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * The MovementProgram class is the movement.txt-file of a character type, compiled once to a
+ * list of instructions. Every instruction is a direction opcode and how long it runs (ms). The
+ * program is shared by every character of the type, each character only keeps where it is in
+ * the program, so moving a character doesn't parse or create anything.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class MovementProgram {
+    // The opcodes, one per direction letter in movement.txt
+    public static final byte NOP = 0;
+    public static final byte DOWN = 1;
+    public static final byte UP = 2;
+    public static final byte LEFT = 3;
+    public static final byte RIGHT = 4;
+    public static final byte STOP = 5;
+
+    // The compiled programs by character type, null for types without a movement.txt-file
+    private static HashMap<String, MovementProgram> programs = new HashMap<>();
+
+    private byte[] opcodes;
+    private int[] durations;
+
+    /**
+     * Constructor of the MovementProgram class, compiles the lines of a movement.txt-file. Lines
+     * that can't be read are skipped.
+     *
+     * @param lines The lines, "[MS] [DIRECTION]", i.e "1000 D".
+     * @param filePath Path to the file, used in the messages about skipped lines.
+     */
+    public MovementProgram(ArrayList<String> lines, String filePath) {
+        ArrayList<Byte> opcodeList = new ArrayList<>();
+        ArrayList<Integer> durationList = new ArrayList<>();
+        for (String line : lines) {
+            line = line.trim();
+            if (line.equals("")) {
+                continue;
+            }
+            String[] parts = line.split(" ");
+            try {
+                durationList.add(Integer.parseInt(parts[0]));
+            } catch (NumberFormatException ex) {
+                System.out.println("Skipping line \"" + line + "\" in " + filePath);
+                continue;
+            }
+            opcodeList.add(parts.length > 1 ? getOpcode(parts[1]) : NOP);
+        }
+
+        opcodes = new byte[opcodeList.size()];
+        durations = new int[durationList.size()];
+        for (int i = 0; i < opcodes.length; i++) {
+            opcodes[i] = opcodeList.get(i);
+            durations[i] = durationList.get(i);
+        }
+    }
+
+    /**
+     * Method used to get the program of a character type, compiled the first time it is asked
+     * for.
+     *
+     * @param characterType Name of the character folder, i.e "goblin".
+     * @return The program, null if the type doesn't have a movement.txt-file.
+     */
+    public static MovementProgram get(String characterType) {
+        if (!programs.containsKey(characterType)) {
+            String filePath = "res/characters/" + characterType + "/movement.txt";
+            ArrayList<String> lines = Tools.readFileToArray(filePath);
+            programs.put(characterType, lines != null ? new MovementProgram(lines, filePath) : null);
+        }
+        return programs.get(characterType);
+    }
+
+    /**
+     * @param direction The direction letter, "D", "U", "L", "R" or "S".
+     * @return The opcode of the direction, NOP for anything else.
+     */
+    private static byte getOpcode(String direction) {
+        switch (direction) {
+            case "D":
+                return DOWN;
+            case "U":
+                return UP;
+            case "L":
+                return LEFT;
+            case "R":
+                return RIGHT;
+            case "S":
+                return STOP;
+            default:
+                return NOP;
+        }
+    }
+
+    /**
+     * @return The number of instructions in the program.
+     */
+    public int getLength() { return opcodes.length; }
+
+    /**
+     * @param index Index of the instruction.
+     * @return The opcode of the instruction, i.e DOWN.
+     */
+    public byte getOpcode(int index) { return opcodes[index]; }
+
+    /**
+     * @param index Index of the instruction.
+     * @return How long the instruction runs (ms).
+     */
+    public int getDuration(int index) { return durations[index]; }
+}
@@ -21,19 +21,42 @@ public class Player extends Character {
      * Constructor of the Player class.
      *
      * @param rectangle The player's rectangle
-     * @param speed     The player's speed, how fast the world objects move
+     * @param speed     The player's speed
      * @param radius    The radius of the range of the player
      * @throws SlickException Generic exception
      */
     public Player(Rectangle rectangle, float speed, float radius) throws SlickException {
         super(rectangle, "player", "player", speed);
+        getInventory().setCapacity(Settings.get().getInventoryCapacity());
 
-        // Creates the range circle and places it in the middle of the screen
+        // Creates the range circle and places it around the player
         range = new Circle(0, 0, radius);
         range.setCenterX(getRect().getCenterX());
         range.setCenterY(getRect().getCenterY());
     }
 
+    /**
+     * Moves the player, and the player's range with it.
+     *
+     * @param xMovement How far the player should move in the x-direction.
+     * @param yMovement How far the player should move in the y-direction.
+     */
+    public void move(float xMovement, float yMovement) {
+        setLocation(getRect().getX() + xMovement, getRect().getY() + yMovement);
+    }
+
+    /**
+     * Places the player at a location in the world, and the player's range with it.
+     *
+     * @param x The x-coordinate of the player's rectangle.
+     * @param y The y-coordinate of the player's rectangle.
+     */
+    public void setLocation(float x, float y) {
+        getRect().setLocation(x, y);
+        range.setCenterX(getRect().getCenterX());
+        range.setCenterY(getRect().getCenterY());
+    }
+
     /**
      * Method used to get the cirlce representing the players range.
      *
@@ -45,18 +68,14 @@ public class Player extends Character {
 
     /**
      * Method used to try to add an item to the players inventory, returns true of possible, returns
-     * false if not. If true, adds item to inventory. Player can hold max 10 items.
+     * false if not. If true, adds item to inventory. Player can hold as many items as
+     * INVENTORY_CAPACITY in the settings.
      *
      * @param item The item that should be added.
      * @return A boolean indicating whether it was possible to add the item to the player's inventory.
      */
     public boolean tryAddToInventory(Item item) {
-        if (getInventory().getItems().size() < 10) {
-            getInventory().addItem(item);
-            return true;
-        } else {
-            return false;
-        }
+        return getInventory().addItem(item);
     }
 
     /**
@@ -66,56 +85,73 @@ public class Player extends Character {
      * @return The item that was removed from the inventory.
      */
     public Item removeFromInventory(int itemIndex) {
-        if (getInventory().getItems().size() > 0 && getInventory().getItems().size() > itemIndex) {
-            return getInventory().getItems().remove(itemIndex);
+        if (itemIndex >= 0 && itemIndex < getInventory().getNumberOfItems()) {
+            return getInventory().removeItem(itemIndex);
         } else {
             return null;
         }
     }
 
     /**
-     * Method used to return an ArrayList of the items that the player's range intersects.
+     * Method used to find the items that the player's range intersects.
      *
-     * @param items An ArrayList containing the items to be checked.
-     * @return An ArrayList with the intersected items.
+     * @param items The broadphase index of the items to be checked.
+     * @param result Buffer that is cleared and filled with the intersected items.
+     * @return The result buffer, with the intersected items.
      */
-    public ArrayList<Item> getItemsInRange(ArrayList<Item> items) {
-        ArrayList<Item> intersectedItems = new ArrayList<>();
-        for (Item item : items) {
-            if (range.intersects(item.getRect())) {
-                intersectedItems.add(item);
+    public ArrayList<Item> getItemsInRange(SpatialIndex<Item> items, ArrayList<Item> result) {
+        queryRange(items, result);
+        // The index finds the items near the range, keep the ones actually in it
+        for (int i = result.size() - 1; i >= 0; i--) {
+            if (!range.intersects(result.get(i).getRect())) {
+                result.remove(i);
             }
         }
-        return intersectedItems;
+        return result;
     }
 
     /**
-     * Returns the first character in an ArrayList that the player range intersects.
+     * Returns the first character that the player range intersects.
      *
-     * @param characters An ArrayList containing the characters to be checked.
+     * @param characters The broadphase index of the characters to be checked.
+     * @param buffer Buffer used for the characters near the player.
      * @return The first character found.
      */
-    public Character getCharacterInRange(ArrayList<Character> characters) {
-        for (Character character : characters) {
-            if (range.intersects(character.getRect())) {
-                return character;
+    public Character getCharacterInRange(SpatialIndex<Character> characters,
+                                         ArrayList<Character> buffer) {
+        queryRange(characters, buffer);
+        for (int i = 0; i < buffer.size(); i++) {
+            if (range.intersects(buffer.get(i).getRect())) {
+                return buffer.get(i);
             }
         }
         return null;
     }
 
     /**
-     * Returns the first intersected exit in an ArrayList of exits that the player intersects.
+     * Returns the first intersected exit that the player intersects.
      *
-     * @param exits An ArrayList containing the exits to be checked.
+     * @param exits The broadphase index of the exits to be checked.
+     * @param buffer Buffer used for the exits intersecting the player.
      * @return The first exit found.
      */
-    public Exit getIntersectedExit(ArrayList<Exit> exits) {
-        for (Exit exit : exits) {
-            if (getRect().intersects(exit.getRect())) {
-                return exit;
-            }
+    public Exit getIntersectedExit(SpatialIndex<Exit> exits, ArrayList<Exit> buffer) {
+        exits.query(getRect().getX(), getRect().getY(),
+                getRect().getWidth(), getRect().getHeight(), buffer);
+        if (buffer.size() > 0) {
+            return buffer.get(0);
         }
         return null;
     }
+
+    /**
+     * Finds the objects in an index near the player's range, i.e. in its bounding box.
+     *
+     * @param index The broadphase index to query.
+     * @param result Buffer that is cleared and filled with the objects found.
+     */
+    private <T> void queryRange(SpatialIndex<T> index, ArrayList<T> result) {
+        index.query(range.getCenterX() - range.getRadius(), range.getCenterY() - range.getRadius(),
+                2 * range.getRadius(), 2 * range.getRadius(), result);
+    }
 }
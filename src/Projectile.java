@@ -1,27 +1,25 @@
-import org.newdawn.slick.Animation;
+import org.newdawn.slick.Image;
 import org.newdawn.slick.SlickException;
 import org.newdawn.slick.geom.Rectangle;
 
 import java.util.ArrayList;
-import java.util.Date;
 
 /**
- * The Projectile class. All projectiles belong to a certain character, this is stored as a String
- * in terms of the Character name. All projectiles have a speed and a direction, amd they all have
- * an animation array and a damage.
+ * The Projectile class. All projectiles belong to a certain character, this is stored as the id
+ * the character got from the EntityRegistry. All projectiles have a speed and a direction, and
+ * they all have an animation array and a damage.
  *
  * @author Oskar Eriksson and Gustave Rousselet
  * @version 0.1
  */
 public class Projectile extends Entity {
-    private ArrayList<Animation> animationArray;
     private boolean shot;
     private String direction;
     private float speed;
     private int damage;
-    private String belongsTo;
+    // The id of the character the projectile belongs to
+    private int ownerId;
     private long lastShot;
-    private Date date;
     private int frameCounter;
 
     /**
@@ -29,33 +27,21 @@ public class Projectile extends Entity {
      *
      * @param rectangle The rectangle of the projectile.
      * @param name The name of the projectile.
+     * @param ownerId The id of the character the projectile belongs to.
+     * @param damage The damage the projectile inflicts upon hit.
+     * @param speed The speed of the projectile, in pixels per ms.
      * @throws SlickException Generic exception.
      */
-    public Projectile(Rectangle rectangle, String name, String characterName,
+    public Projectile(Rectangle rectangle, String name, int ownerId,
                       int damage, float speed) throws SlickException {
         super(rectangle, name, "projectile");
-        animationArray = Tools.createAnimation("projectile", name);
         shot = false;
         direction = null;
         this.speed = speed;
         this.damage = damage;
-        belongsTo = characterName;
-        date = new Date();
-        lastShot = date.getTime();
-    }
-
-    /**
-     * Method used to get the Animation of the Projectile.
-     *
-     * @return Animation of the Projectile.
-     */
-    public Animation getAnimation() {
-        if (!isFrozen()) {
-            // First animatin is always still
-            return animationArray.get(0);
-        } else {
-            return Tools.getFreezeAnimation(animationArray, "");
-        }
+        this.ownerId = ownerId;
+        // Never shot, as if last shot at the start of the game
+        lastShot = 0;
     }
 
     /**
@@ -69,7 +55,11 @@ public class Projectile extends Entity {
         this.direction = direction;
         getRect().setCenterX(centerX);
         getRect().setCenterY(centerY);
+        // The projectile appears at the shooter, don't interpolate from where it was
+        savePreviousLocation();
         shot = true;
+        // First animation is the flying one
+        getAnimationState().play(0);
     }
 
     /**
@@ -79,6 +69,13 @@ public class Projectile extends Entity {
      */
     public boolean isShot() { return shot; }
 
+    /**
+     * Method used to check if the Projectile is showing its hit animation.
+     *
+     * @return True if the Projectile has hit something and the hit animation isn't done.
+     */
+    public boolean isHitting() { return !shot && frameCounter >= 0; }
+
     /**
      * Method used to set the Projectile into shot/not shot mode.
      *
@@ -89,68 +86,136 @@ public class Projectile extends Entity {
     }
 
     /**
-     * Method used to check if the Projectile has intersected with any characters or blocks.
+     * Method used to check if the Projectile hits a character earlier than the hit found so far.
+     * The owner of the Projectile is never hit.
      *
-     * @param blocks Rectangles representing blocked walls/tiles.
-     * @param characters Characters list.
-     * @return Returns Character is Projectile hits Character, and null if hits wall or neither.
+     * @param firstHit The earliest hit found so far, or null.
+     * @param character The character that could be hit.
+     * @param xMovement How far the Projectile moves in the x-direction.
+     * @param yMovement How far the Projectile moves in the y-direction.
+     * @return The earliest of firstHit and the hit on the character.
      */
-    private Character checkIntersection(ArrayList<Rectangle> blocks, ArrayList<Character> characters) {
-        for (Rectangle rectangle : blocks) {
-            if (getRect().intersects(rectangle)) {
-                hit();
-                return null;
-            }
+    private ProjectileHit earlierHit(ProjectileHit firstHit, Character character,
+                                     float xMovement, float yMovement) {
+        if (character.getId() == ownerId) {
+            return firstHit;
         }
-        for (Character character : characters) {
-            if (getRect().intersects(character.getRect()) && !character.getName().equals(belongsTo)) {
-                hit();
-                return character;
-            }
+        float time = sweepRectangle(xMovement, yMovement, character.getRect());
+        if (time >= 0 && (firstHit == null || time < firstHit.getTime())) {
+            return new ProjectileHit(time, character);
         }
-        return null;
+        return firstHit;
+    }
+
+    /**
+     * Method used to find when the Projectile touches a rectangle when moving along one axis.
+     * Touching counts as hitting, the same way as Rectangle.intersects.
+     *
+     * @param xMovement How far the Projectile moves in the x-direction.
+     * @param yMovement How far the Projectile moves in the y-direction.
+     * @param target The rectangle that could be hit.
+     * @return The fraction of the movement (0 to 1) at which the rectangle is touched, or -1.
+     */
+    private float sweepRectangle(float xMovement, float yMovement, Rectangle target) {
+        Rectangle rect = getRect();
+        boolean overlapsX = rect.getX() <= target.getX() + target.getWidth()
+                && rect.getX() + rect.getWidth() >= target.getX();
+        boolean overlapsY = rect.getY() <= target.getY() + target.getHeight()
+                && rect.getY() + rect.getHeight() >= target.getY();
+        if (overlapsX && overlapsY) {
+            return 0;
+        }
+
+        float time = -1;
+        if (xMovement > 0 && overlapsY) {
+            time = (target.getX() - (rect.getX() + rect.getWidth())) / xMovement;
+        } else if (xMovement < 0 && overlapsY) {
+            time = (rect.getX() - (target.getX() + target.getWidth())) / -xMovement;
+        } else if (yMovement > 0 && overlapsX) {
+            time = (target.getY() - (rect.getY() + rect.getHeight())) / yMovement;
+        } else if (yMovement < 0 && overlapsX) {
+            time = (rect.getY() - (target.getY() + target.getHeight())) / -yMovement;
+        }
+        return time >= 0 && time <= 1 ? time : -1;
     }
 
     /**
-     * Method used to control the movement of the Projectile. Moves Projectile according to direction.
+     * Method used to control the movement of the Projectile. Moves Projectile according to
+     * direction. The whole movement is swept, so the Projectile stops at the first thing it hits
+     * on the way no matter how long the frame was.
      *
-     * @param blocks List of blocked Rectangles.
+     * @param collisionMap The collision layer of the room.
      * @param characters List of Characters.
+     * @param player The Player, hit by projectiles that don't belong to the player.
      * @param delta Variable used to store ms between frames.
-     * @return If intersects Character, returns character, otherwise null.
+     * @return The hit if the Projectile hit a wall or a character, otherwise null.
      */
-    public Character moveProjectile(
-            ArrayList<Rectangle> blocks, ArrayList<Character> characters, int delta) {
+    public ProjectileHit moveProjectile(CollisionMap collisionMap,
+                                        ArrayList<Character> characters, Player player,
+                                        int delta) {
         if (shot) {
+            float xMovement = 0;
+            float yMovement = 0;
             switch (direction) {
                 case "up":
-                    getRect().setY(getRect().getY() - speed*delta);
+                    yMovement = -speed*delta;
                     break;
                 case "down":
-                    getRect().setY(getRect().getY() + speed*delta);
+                    yMovement = speed*delta;
                     break;
                 case "left":
-                    getRect().setX(getRect().getX() - speed*delta);
+                    xMovement = -speed*delta;
                     break;
                 case "right":
-                    getRect().setX(getRect().getX() + speed*delta);
+                    xMovement = speed*delta;
                     break;
                 default:
                     break;
             }
-            return checkIntersection(blocks, characters);
+
+            // Find the earliest hit along the movement, walls win ties
+            ProjectileHit firstHit = null;
+            float wallTime = collisionMap.sweep(getRect().getX(), getRect().getY(),
+                    getRect().getWidth(), getRect().getHeight(), xMovement, yMovement);
+            if (wallTime >= 0) {
+                firstHit = new ProjectileHit(wallTime, null);
+            }
+            for (Character character : characters) {
+                firstHit = earlierHit(firstHit, character, xMovement, yMovement);
+            }
+            firstHit = earlierHit(firstHit, player, xMovement, yMovement);
+
+            // Move up to the hit, or the whole way if nothing was hit
+            float time = firstHit != null ? firstHit.getTime() : 1;
+            getRect().setX(getRect().getX() + xMovement * time);
+            getRect().setY(getRect().getY() + yMovement * time);
+            if (firstHit != null) {
+                hit();
+            }
+            return firstHit;
         }
         return null;
     }
 
     /**
-     * Method used to render the Projectile.
+     * Method used to render the Projectile, by submitting it to the render queue.
+     *
+     * @param queue The render queue.
+     * @param alpha How far into the next tick the frame is rendered (0 to 1).
      */
-    public void render() {
+    public void render(RenderQueue queue, float alpha) {
         if (shot) {
-            getAnimation().draw(getRect().getX(), getRect().getY());
-        } else {
-            hit();
+            // First animation is always the flying one, frozen it shows its first frame
+            Image frame = getAnimationState().getFrame();
+            if (frame != null) {
+                queue.submit(RenderQueue.LAYER_PROJECTILES, frame, getRenderX(alpha),
+                        getRenderY(alpha));
+            }
+        } else if (frameCounter >= 0) {
+            // Run hit animation for every frame of the animation
+            queue.submit(RenderQueue.LAYER_PROJECTILES, getAnimationArray().get(1),
+                    getRect().getX(), getRect().getY());
+            frameCounter--;
         }
     }
 
@@ -164,11 +229,9 @@ public class Projectile extends Entity {
     /**
      * Method used to get the owner (Character) of the Projectile.
      *
-     * @return Character that the Projectile belongs to.
+     * @return The id of the Character that the Projectile belongs to.
      */
-    public String getBelongsTo() {
-        return belongsTo;
-    }
+    public int getOwnerId() { return ownerId; }
 
     /**
      * Method used to toggle the time that the Projectile was last shot. lastShot gets set to current
@@ -191,18 +254,16 @@ public class Projectile extends Entity {
 
     /**
      * Method used to initialise the Projectile into hit mode (when Projectile intersects Character).
+     * The hit animation is drawn when the Projectile is rendered.
      */
     public void hit() {
         // If it's a hit, set shot to false and start hit animation
         if (shot) {
             shot = false;
             frameCounter = getAnimationArray().get(1).getFrameCount();
-        }
-
-        // Run hit animation for every frame of the animation
-        if (frameCounter >= 0) {
-            getAnimationArray().get(1).draw(getRect().getX(), getRect().getY());
-            frameCounter--;
+            // The hit animation plays from its first frame
+            getAnimationArray().get(1).restart();
+            getAnimationState().play(1);
         }
     }
 }
@@ -0,0 +1,36 @@
+/**
+ * The ProjectileHit class describes where along its movement a projectile hit something, and what
+ * it hit.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class ProjectileHit {
+    private float time;
+    private Character target;
+
+    /**
+     * Constructor of the ProjectileHit class.
+     *
+     * @param time The fraction of the movement (0 to 1) at which the projectile hit.
+     * @param target The character that was hit, or null if the projectile hit a wall.
+     */
+    public ProjectileHit(float time, Character target) {
+        this.time = time;
+        this.target = target;
+    }
+
+    /**
+     * Method used to get when during the movement the projectile hit.
+     *
+     * @return The fraction of the movement (0 to 1) at which the projectile hit.
+     */
+    public float getTime() { return time; }
+
+    /**
+     * Method used to get what the projectile hit.
+     *
+     * @return The character that was hit, or null if the projectile hit a wall.
+     */
+    public Character getTarget() { return target; }
+}
@@ -0,0 +1,191 @@
+import org.newdawn.slick.Animation;
+import org.newdawn.slick.Image;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The RenderQueue class collects the sprites drawn in a frame and draws them together. Every
+ * sprite is submitted with a layer and the texture it uses. When the queue is flushed the
+ * sprites are sorted by layer and then by texture, so every texture in a layer is bound once
+ * and its sprites are drawn in one batch. Sprites with the same layer and texture keep the
+ * order they were submitted in. The number of batches and texture binds are counted per frame.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class RenderQueue {
+    // The layers, drawn from the lowest to the highest
+    public static final int LAYER_PLAYER = 0;
+    public static final int LAYER_ITEMS = 1;
+    public static final int LAYER_CHARACTERS = 2;
+    public static final int LAYER_PROJECTILES = 3;
+    public static final int LAYER_INVENTORY = 4;
+
+    /**
+     * A sprite waiting to be drawn.
+     */
+    private static class Sprite {
+        private int layer;
+        private int texture;
+        private int order;
+        private Image image;
+        private float x;
+        private float y;
+    }
+
+    // Sorts by layer, then texture, then the order the sprites were submitted in
+    private static final Comparator<Sprite> SPRITE_ORDER = (first, second) -> {
+        if (first.layer != second.layer) {
+            return Integer.compare(first.layer, second.layer);
+        }
+        if (first.texture != second.texture) {
+            return Integer.compare(first.texture, second.texture);
+        }
+        return Integer.compare(first.order, second.order);
+    };
+
+    private SpriteRenderer renderer;
+
+    // The sprites are reused every frame, only the first spriteCount are in use
+    private ArrayList<Sprite> spritePool;
+    private Sprite[] sorted;
+    private int spriteCount;
+
+    // Counts for the current frame
+    private int spritesDrawn;
+    private int batches;
+    private int binds;
+    private int lastTexture;
+
+    /**
+     * Constructor of the RenderQueue class.
+     *
+     * @param renderer The renderer drawing the batches.
+     */
+    public RenderQueue(SpriteRenderer renderer) {
+        this.renderer = renderer;
+        spritePool = new ArrayList<>();
+        sorted = new Sprite[0];
+        spriteCount = 0;
+        resetCounts();
+    }
+
+    /**
+     * Method used to submit an image.
+     *
+     * @param layer The layer of the sprite, i.e LAYER_CHARACTERS.
+     * @param image The image to draw.
+     * @param x X location to draw the image at.
+     * @param y Y location to draw the image at.
+     */
+    public void submit(int layer, Image image, float x, float y) {
+        submit(layer, image.getTexture().getTextureID(), image, x, y);
+    }
+
+    /**
+     * Method used to submit the current frame of an animation. Animations are moved forward by
+     * the game ticks, not when they are drawn. Animations without frames are skipped.
+     *
+     * @param layer The layer of the sprite, i.e LAYER_CHARACTERS.
+     * @param animation The animation to draw.
+     * @param x X location to draw the frame at.
+     * @param y Y location to draw the frame at.
+     */
+    public void submit(int layer, Animation animation, float x, float y) {
+        if (animation.getFrameCount() == 0) {
+            return;
+        }
+        submit(layer, animation.getCurrentFrame(), x, y);
+    }
+
+    /**
+     * Method used to submit an image with a known texture.
+     *
+     * @param layer The layer of the sprite, i.e LAYER_CHARACTERS.
+     * @param texture The texture the image is in.
+     * @param image The image to draw.
+     * @param x X location to draw the image at.
+     * @param y Y location to draw the image at.
+     */
+    public void submit(int layer, int texture, Image image, float x, float y) {
+        if (spriteCount == spritePool.size()) {
+            spritePool.add(new Sprite());
+        }
+        Sprite sprite = spritePool.get(spriteCount);
+        sprite.layer = layer;
+        sprite.texture = texture;
+        sprite.order = spriteCount;
+        sprite.image = image;
+        sprite.x = x;
+        sprite.y = y;
+        spriteCount++;
+    }
+
+    /**
+     * Method used to draw everything submitted since the last flush, sorted and batched.
+     */
+    public void flush() {
+        if (spriteCount == 0) {
+            return;
+        }
+        if (sorted.length < spriteCount) {
+            sorted = new Sprite[spritePool.size()];
+        }
+        for (int i = 0; i < spriteCount; i++) {
+            sorted[i] = spritePool.get(i);
+        }
+        Arrays.sort(sorted, 0, spriteCount, SPRITE_ORDER);
+
+        // Whatever was drawn between flushes may have bound another texture
+        lastTexture = -1;
+
+        // A new batch starts whenever the layer or the texture changes
+        int i = 0;
+        while (i < spriteCount) {
+            Sprite first = sorted[i];
+            if (first.texture != lastTexture) {
+                binds++;
+                lastTexture = first.texture;
+            }
+            batches++;
+            renderer.beginBatch(first.image);
+            while (i < spriteCount && sorted[i].layer == first.layer
+                    && sorted[i].texture == first.texture) {
+                renderer.drawSprite(sorted[i].image, sorted[i].x, sorted[i].y);
+                sorted[i].image = null;
+                sorted[i] = null;
+                i++;
+            }
+            renderer.endBatch();
+        }
+        spritesDrawn += spriteCount;
+        spriteCount = 0;
+    }
+
+    /**
+     * Method used to start the counts over, at the start of every frame.
+     */
+    public void resetCounts() {
+        spritesDrawn = 0;
+        batches = 0;
+        binds = 0;
+        lastTexture = -1;
+    }
+
+    /**
+     * @return The number of sprites drawn since the counts were reset.
+     */
+    public int getSpritesDrawn() { return spritesDrawn; }
+
+    /**
+     * @return The number of batches (draw calls) since the counts were reset.
+     */
+    public int getBatches() { return batches; }
+
+    /**
+     * @return The number of texture binds since the counts were reset.
+     */
+    public int getBinds() { return binds; }
+}
@@ -0,0 +1,90 @@
+import org.newdawn.slick.SlickException;
+
+import java.io.IOException;
+
+/**
+ * The ReplayRunner class replays a recorded session without a display, as fast as possible. Since
+ * the simulation only depends on the recorded keys and tick lengths, the same recording always
+ * ends in the same world, which is printed as a checksum together with the timing. Used to
+ * compare builds.
+ *
+ * Usage: java ReplayRunner [recording]
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class ReplayRunner {
+
+    /**
+     * The main method, loads the world and replays the recording.
+     *
+     * @param args Command-line arguments, the recording to replay.
+     * @throws SlickException Generic exception.
+     * @throws IOException If the recording can't be read.
+     */
+    public static void main(String[] args) throws SlickException, IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java ReplayRunner [recording]");
+            return;
+        }
+        InputReplay replay = new InputReplay(args[0]);
+
+        // Load the world without a display
+        Tools.setHeadless(true);
+        GameState gameState = new GameState("startscreen");
+        World world = new World(gameState);
+        gameState.startGame();
+
+        long start = System.nanoTime();
+        int ticks = 0;
+        while (replay.next() && !gameState.getCurrentState().equals("gameover")
+                && !gameState.getCurrentState().equals("wingame")) {
+            world.updateWorld(replay, replay.getDelta());
+            ticks++;
+        }
+        long runTime = System.nanoTime() - start;
+
+        System.out.println("Replayed " + ticks + " ticks (" + GameClock.getTime() / 1000
+                + " s of game time) in " + runTime / 1000000 + " ms");
+        System.out.println("Ticks per second: " + (long)(ticks / (runTime / 1e9)));
+        System.out.println("Final state: " + gameState.getCurrentState()
+                + ", room: " + world.getCurrentRoom().getName()
+                + ", player at " + world.getPlayer().getRect().getX()
+                + ", " + world.getPlayer().getRect().getY()
+                + ", health: " + world.getPlayer().getHealth());
+        System.out.println("World checksum: " + Integer.toHexString(checksum(world)));
+    }
+
+    /**
+     * Calculates a checksum of the things in the world that the simulation changes.
+     *
+     * @param world The world.
+     * @return The checksum.
+     */
+    public static int checksum(World world) {
+        int hash = world.getCurrentRoom().getName().hashCode();
+        hash = 31 * hash + checksum(world.getPlayer());
+        for (Character character : world.getCurrentRoom().getCharacters()) {
+            hash = 31 * hash + checksum(character);
+        }
+        for (Projectile projectile : world.getCurrentRoom().getProjectiles()) {
+            hash = 31 * hash + Float.floatToIntBits(projectile.getRect().getX());
+            hash = 31 * hash + Float.floatToIntBits(projectile.getRect().getY());
+            hash = 31 * hash + (projectile.isShot() ? 1 : 0);
+        }
+        for (Item item : world.getPlayer().getInventory().getItems()) {
+            hash = 31 * hash + item.getName().hashCode();
+        }
+        return hash;
+    }
+
+    /**
+     * @param character A character.
+     * @return A checksum of the location and health of the character.
+     */
+    private static int checksum(Character character) {
+        int hash = Float.floatToIntBits(character.getRect().getX());
+        hash = 31 * hash + Float.floatToIntBits(character.getRect().getY());
+        return 31 * hash + character.getHealth();
+    }
+}
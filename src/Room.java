@@ -2,11 +2,9 @@ import org.newdawn.slick.Graphics;
 import org.newdawn.slick.SlickException;
 import org.newdawn.slick.geom.Circle;
 import org.newdawn.slick.geom.Rectangle;
-import org.newdawn.slick.tiled.TiledMap;
-
-import java.util.Date;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 
 /**
@@ -15,80 +13,196 @@ import java.util.Iterator;
  * @version 0.1
  */
 public class Room {
-    // The map of the room
-    private TiledMap map;
+    // The map of the room, and the renderer drawing it (created when first drawn)
+    private MapData map;
+    private MapRenderer mapRenderer;
 
-    // The blocked tiles of the room, the exits, the items, the players and the projectiles
+    // The blocked tiles of the room (built when first asked for), the exits, the items, the players
+    // and the projectiles
     private ArrayList<Rectangle> blocks;
     private ArrayList<Exit> exits;
     private ArrayList<Item> items;
     private ArrayList<Character> characters;
+    // The characters by name, names of characters are unique in the game
+    private HashMap<String, Character> charactersByName;
     private ArrayList<Projectile> projectiles;
 
-    // Name of the room
-    private String name;
+    // One bit per tile telling whether the tile is blocked, used for collision checks
+    private CollisionMap collisionMap;
 
-    // The current offset of the room, how much it has moved (when the player moves"
-    private double xOffset;
-    private double yOffset;
+    // Broadphase indexes of the exits, items and characters, used for range queries
+    private SpatialIndex<Exit> exitIndex;
+    private SpatialIndex<Item> itemIndex;
+    private SpatialIndex<Character> characterIndex;
 
-    // Date for time handling
-    private Date date;
+    // Buffer for the items found when highlighting items
+    private ArrayList<Item> itemsInRange;
+
+    // Name of the room
+    private String name;
 
     // The character with whom the cutscene dialogue should be with
     private String cutsceneCharacter;
 
-    // Time when the player entered the room
+    // Time when the player entered the room, enemies don't shoot until the grace period is over
     private long enterTime;
+    private static final int ENTER_GRACE_PERIOD = 1000;
+
+    // Runs things that happen later in the room, like enemies shooting, on game time
+    private TimerWheel timers;
+    private HashMap<Projectile, TimerWheel.Timer> shotTimers;
+
+    // True when a character has died and its projectile may still be in the room
+    private boolean projectilesToRemove;
+
+    // How far outside its rectangle an entity may be drawn, used when skipping entities that
+    // aren't on the screen (px)
+    private static final float CULL_MARGIN = 32;
+
+    // The characters drawn in the current frame, whose text is drawn after the sprites
+    private ArrayList<Character> visibleCharacters;
+
+    // What was drawn and skipped in the last frame
+    private int tilesDrawn;
+    private int entitiesDrawn;
+    private int entitiesCulled;
 
     /**
      * @param mapDirectory Name of the map .tmx-file in the map-folder
      * @param name Name of the map
+     * @param playerId The id of the player, who owns a projectile in every room
+     * @throws SlickException Generic exception
+     */
+    public Room(String mapDirectory, String name, int playerId) throws SlickException {
+        this(RoomData.fromMap(new MapData(mapDirectory)), name, playerId);
+    }
+
+    /**
+     * @param roomData The map of the room and what is placed in it, read from the .tmx-file or
+     *                 from a baked .room-file
+     * @param name Name of the map
+     * @param playerId The id of the player, who owns a projectile in every room
      * @throws SlickException Generic exception
      */
-    public Room(String mapDirectory, String name) throws SlickException {
-        map = new TiledMap(mapDirectory);
+    public Room(RoomData roomData, String name, int playerId) throws SlickException {
+        map = roomData.getMap();
+        collisionMap = roomData.getCollisionMap();
         this.name = name;
 
-        blocks = new ArrayList<>();
         exits = new ArrayList<>();
         items = new ArrayList<>();
         characters = new ArrayList<>();
+        charactersByName = new HashMap<>();
 
         projectiles = new ArrayList<>();
         // The player's projectile
-        projectiles.add(new Projectile(
-                new Rectangle(0, 0, 44, 42), "fireball", "player", 10, 0.35f));
-
-        xOffset = 0;
-        yOffset = 0;
-        date = new Date();
-        enterTime = date.getTime();
+        projectiles.add(new Projectile(new Rectangle(0, 0, 44, 42), "fireball", playerId, 10,
+                0.35f));
+
+        // Rooms are built when they are first needed, but count as entered at the start of the game
+        enterTime = 0;
+        timers = new TimerWheel(GameClock.getTime(), 1);
+        shotTimers = new HashMap<>();
+        projectilesToRemove = false;
         cutsceneCharacter = "";
+        itemsInRange = new ArrayList<>();
+        visibleCharacters = new ArrayList<>();
 
         // Generate the world objects
-        generateWorldObjects();
+        generateWorldObjects(roomData);
         }
 
     /**
-     * Renders the map
-     * @param worldX How much the world has moved in the x-direction
-     * @param worldY How much the world has moved in the y-direction
+     * Renders the part of the map that is on the screen, at the origin of the world, the camera
+     * takes care of the offset
+     * @param camera The camera, telling what is on the screen
+     * @throws SlickException If the tile set images can't be loaded
+     */
+    public void render(Camera camera) throws SlickException {
+        // The tile set images are loaded the first time the room is drawn
+        prepareRenderer();
+
+        // Only the tiles on the screen are drawn, the counts start over every frame
+        int firstTileX = Math.floorDiv(camera.getViewX(), map.getTileWidth());
+        int firstTileY = Math.floorDiv(camera.getViewY(), map.getTileHeight());
+        int lastTileX = Math.floorDiv(camera.getViewX() + camera.getViewWidth() - 1,
+                map.getTileWidth());
+        int lastTileY = Math.floorDiv(camera.getViewY() + camera.getViewHeight() - 1,
+                map.getTileHeight());
+        tilesDrawn = mapRenderer.render(0, 0, firstTileX, firstTileY,
+                lastTileX - firstTileX + 1, lastTileY - firstTileY + 1);
+        entitiesDrawn = 0;
+        entitiesCulled = 0;
+    }
+
+    /**
+     * Loads the tile set images of the room if they aren't loaded yet, must be called on the
+     * thread that owns the OpenGL context
+     * @throws SlickException If the tile set images can't be loaded
      */
-    public void render(double worldX, double worldY) {
-        map.render((int)worldX, (int)worldY);
+    public void prepareRenderer() throws SlickException {
+        if (mapRenderer == null) {
+            mapRenderer = new MapRenderer(map);
+        }
     }
 
     /**
+     * Returns the blocked tiles as rectangles, built the first time they are asked for since
+     * collisions are checked against the collision map. The tiles are merged into larger
+     * rectangles if enabled in the settings, otherwise there is one block per blocked tile
      * @return Returns an ArrayList of blocks, objects that the player collides with
      */
-    public ArrayList<Rectangle> getBlocks() { return blocks; }
+    public ArrayList<Rectangle> getBlocks() {
+        if (blocks == null) {
+            if (Settings.get().isMergeBlocks()) {
+                blocks = collisionMap.toMergedRectangles();
+            } else {
+                blocks = new ArrayList<>();
+                int tileWidth = map.getTileWidth();
+                int tileHeight = map.getTileHeight();
+                for (int i = 0; i < map.getWidth(); i++) {
+                    for (int j = 0; j < map.getHeight(); j++) {
+                        if (collisionMap.isBlockedAt(i, j)) {
+                            blocks.add(new Rectangle((float)i * tileWidth,
+                                    (float)j * tileHeight, tileWidth, tileHeight));
+                        }
+                    }
+                }
+            }
+        }
+        return blocks;
+    }
+
+    /**
+     * @return The number of blocked tiles in the room
+     */
+    public int getBlockedTileCount() { return collisionMap.getBlockedCount(); }
+
+    /**
+     * @return Returns the collision layer of the room, one bit per tile
+     */
+    public CollisionMap getCollisionMap() { return collisionMap; }
 
     /**
      * @return Returns an ArrayList of exits in the room
      */
     public ArrayList<Exit> getExits() { return exits; }
 
+    /**
+     * @return Returns the broadphase index of the exits in the room
+     */
+    public SpatialIndex<Exit> getExitIndex() { return exitIndex; }
+
+    /**
+     * @return Returns the broadphase index of the items in the room
+     */
+    public SpatialIndex<Item> getItemIndex() { return itemIndex; }
+
+    /**
+     * @return Returns the broadphase index of the characters in the room
+     */
+    public SpatialIndex<Character> getCharacterIndex() { return characterIndex; }
+
     /**
      * @return Returns an ArrayList of items in the room
      */
@@ -110,151 +224,203 @@ public class Room {
     public String getName() { return name;}
 
     /**
-     * Updates all the rectangles in the rooms, i.e. the blocks, the items
-     * the characters and so on
-     * @param xMovement How much the rectangles should move in the x-direction
-     * @param yMovement How much the rectangles should move in the y-direction
-     * @param newBlocks An ArrayList containing the new collision blocks
+     * Checks if a rectangle would intersect any blocked tile if it moved
+     * @param rectangle The rectangle to check, i.e. the player's rectangle
+     * @param xMovement How much the rectangle would move in the x-direction
+     * @param yMovement How much the rectangle would move in the y-direction
+     * @return True if the rectangle would intersect a blocked tile
      */
-    public void updateRectangles(double xMovement, double yMovement, ArrayList<Rectangle> newBlocks) {
-        // Update blocks
-        blocks = newBlocks;
-        // Update exits
-        for (Exit exit : exits) {
-            exit.getRect().setX(exit.getRect().getX() + (float)xMovement);
-            exit.getRect().setY(exit.getRect().getY() + (float)yMovement);
-        }
-        // Update items
+    public boolean isBlocked(Rectangle rectangle, double xMovement, double yMovement) {
+        return collisionMap.intersects(
+                rectangle.getX() + (float)xMovement, rectangle.getY() + (float)yMovement,
+                rectangle.getWidth(), rectangle.getHeight());
+    }
+
+    /**
+     * Renders the entities in the room,  characters and items and so on, by submitting them to
+     * the render queue. Entities that aren't on the screen are skipped
+     * @param queue The render queue
+     * @param player The Player object
+     * @param alpha How far into the next tick the frame is rendered (0 to 1)
+     * @param camera The camera, telling what is on the screen
+     */
+    public void renderEntities(RenderQueue queue, Player player, float alpha, Camera camera) {
+        // Loop through items and render
         for (Item item : items) {
-            item.getRect().setX(item.getRect().getX() + (float)xMovement);
-            item.getRect().setY(item.getRect().getY() + (float)yMovement);
+            if (camera.isVisible(item.getRect(), CULL_MARGIN)) {
+                queue.submit(RenderQueue.LAYER_ITEMS, item.getAnimationArray().get(0),
+                        item.getRect().getX(), item.getRect().getY());
+                entitiesDrawn++;
+            } else {
+                entitiesCulled++;
+            }
         }
-        // Update characters
+
+        // Loop through characters and render. A character in dialogue is always drawn, since
+        // the dialogue also hands over the items
+        visibleCharacters.clear();
         for (Character character : characters) {
-            character.getRect().setX(character.getRect().getX() + (float)xMovement);
-            character.getRect().setY(character.getRect().getY() + (float)yMovement);
+            if (character.getInDialogue() || camera.isVisible(character.getRect(), CULL_MARGIN)) {
+                character.renderCharacter(queue, RenderQueue.LAYER_CHARACTERS, player, alpha);
+                visibleCharacters.add(character);
+                entitiesDrawn++;
+            } else {
+                entitiesCulled++;
+            }
         }
-        //Update projectiles
+
+        // Loop through projectiles and render, a hit animation counts down even off screen
         for (Projectile projectile : projectiles) {
-            projectile.getRect().setX(projectile.getRect().getX() + (float)xMovement);
-            projectile.getRect().setY(projectile.getRect().getY() + (float)yMovement);
+            if (projectile.isShot() && !camera.isVisible(projectile.getRect(), CULL_MARGIN)) {
+                entitiesCulled++;
+            } else if (projectile.isShot() || projectile.isHitting()) {
+                projectile.render(queue, alpha);
+                entitiesDrawn++;
+            }
         }
-
-        xOffset += (float)xMovement;
-        yOffset += (float)yMovement;
     }
 
     /**
-     * Renders the entities in the room,  characters and items and so on
+     * Renders the text of the characters drawn by renderEntities, their dialogue and health.
+     * Must be called after the render queue is flushed, so the text is on top
      * @param graphics Graphics component used for drawing
-     * @param player The Player object
-     * @param gameState The GameState object
+     * @param alpha How far into the next tick the frame is rendered (0 to 1)
      */
-    public void renderEntities(Graphics graphics, Player player, GameState gameState) {
-        // Loop through items and render
-        for (Item item : items) {
-            item.getAnimationArray().get(0).draw(item.getRect().getX(), item.getRect().getY());
+    public void renderEntityText(Graphics graphics, float alpha) {
+        for (int i = 0; i < visibleCharacters.size(); i++) {
+            visibleCharacters.get(i).renderText(graphics, alpha);
         }
+    }
+
+    /**
+     * @return The number of tiles drawn in the last frame
+     */
+    public int getTilesDrawn() { return tilesDrawn; }
 
-        // Loop through characters and render, also health
+    /**
+     * @return The number of entities drawn in the last frame
+     */
+    public int getEntitiesDrawn() { return entitiesDrawn; }
+
+    /**
+     * @return The number of entities skipped in the last frame, since they weren't on the screen
+     */
+    public int getEntitiesCulled() { return entitiesCulled; }
+
+    /**
+     * Saves the locations of the moving entities at the start of a tick, used to interpolate
+     * between ticks when rendering
+     */
+    public void savePreviousLocations() {
         for (Character character : characters) {
-            character.renderCharacter(player, graphics);
-            character.drawHealth();
+            character.savePreviousLocation();
         }
-
-        // Loop through projectiles and render
         for (Projectile projectile : projectiles) {
-            projectile.render();
+            projectile.savePreviousLocation();
         }
-
-        // Run method for enemies shooting fireballs
-        EnemyShootFireballs(gameState);
     }
 
     /** Updates the characters who are moving in the room
      * @param delta Amount of time that has passed since last updateGraphics (ms).
      * @param player Player object
      * @param gamestate GameState object
+     * @throws SlickException If the textures of a dead character can't be destroyed
      */
-    public void updateEntities(int delta, Player player, GameState gamestate) {
+    public void updateEntities(int delta, Player player, GameState gamestate)
+            throws SlickException {
+        // Move the item animations forward
+        for (Item item : items) {
+            item.updateAnimation(delta);
+        }
+
         // Update character positions
         if (characters.size() > 0) {
             for (Character character : characters) {
                 character.updateLocation(delta);
+                character.updateAnimation(delta);
+                characterIndex.update(character);
             }
         }
 
         // Place this in projectiles
         // Update projectiles positions
         for (Projectile projectile : projectiles) {
-            Character hitCharacter = projectile.moveProjectile(getBlocks(), getCharacters(), delta);
-            if (hitCharacter != null) {
-                hitCharacter.takeDamage(projectile.getDamage());
-                checkIfAlive(gamestate);
-            }
-            if (!projectile.getBelongsTo().equals("player")
-                    && projectile.getRect().intersects(player.getRect()) && projectile.isShot()) {
-                projectile.setShot(false);
-                player.takeDamage(projectile.getDamage());
+            ProjectileHit hit = projectile.moveProjectile(collisionMap, characters, player, delta);
+            projectile.updateAnimation(delta);
+            if (hit != null) {
+                if (hit.getTarget() != null) {
+                    hit.getTarget().takeDamage(projectile.getDamage());
+                    checkIfAlive(gamestate);
+                }
+                // The projectile can be shot again
+                scheduleShot(projectile);
             }
         }
+        if (projectilesToRemove) {
+            removeDeadCharactersProjectiles();
+        }
+
+        // Run the timers that are due, like enemies shooting, unless the game just ended
+        if (gamestate.getCurrentState().equals("default")) {
+            timers.advanceTo(GameClock.getTime());
+        }
     }
 
     /**
-     * Generates all the objects in the world, looping through the tiles in the map from Tiled
+     * Generates all the objects in the world, from the blocked tiles and the exits, items and
+     * characters placed in the map from Tiled
+     * @param roomData The map of the room and what is placed in it
      * @throws SlickException Generic exception
      */
-    private void generateWorldObjects() throws SlickException {
-        // Loop through all tiles in the map file
-        for (int i = 0; i < map.getWidth(); i++) {
-            for (int j = 0; j < map.getHeight(); j++) {
-                int tileID = map.getTileId(i, j, 1);
-
-                // Check for blocked tiles
-                String value = map.getTileProperty(tileID, "Blocked", "false");
-                if (value.equals("true")) {
-                    blocks.add(new Rectangle((float)i * map.getTileWidth(),
-                            (float)j * map.getTileHeight(),
-                            map.getTileWidth(), map.getTileHeight()));
-                }
+    private void generateWorldObjects(RoomData roomData) throws SlickException {
+        int tileWidth = map.getTileWidth();
+        int tileHeight = map.getTileHeight();
+
+        for (RoomData.Placement exit : roomData.getExits()) {
+            exits.add(new Exit(new Rectangle((float)exit.getTileX() * tileWidth,
+                    (float)exit.getTileY() * tileHeight, tileWidth, tileHeight),
+                    exit.getName(), exit.getSpawnX(), exit.getSpawnY()));
+        }
 
-                // Check for exit tiles
-                String destination = map.getTileProperty(tileID, "Exit", "");
-                if (!destination.equals("")) {
-                    int spawnXPosition = Integer.parseInt(map.getTileProperty(tileID, "SpawnX", ""));
-                    int spawnYPosition = Integer.parseInt(map.getTileProperty(tileID, "SpawnY", ""));
-                    exits.add(new Exit(new Rectangle((float)i * map.getTileWidth(),
-                            (float)j * map.getTileHeight(),
-                            map.getTileWidth(), map.getTileHeight()), destination, spawnXPosition, spawnYPosition));
-                }
+        for (RoomData.Placement item : roomData.getItems()) {
+            // Create the item rectangle (SET SIZE ACCORDING TO PROPERTIES)
+            Rectangle itemRectangle = new Rectangle((float)item.getTileX() * tileWidth,
+                    (float)item.getTileY() * tileHeight, tileWidth, tileHeight);
+            items.add(new Item(itemRectangle, item.getName()));
+        }
 
-                // Check for objects on item layer
-                tileID = map.getTileId(i, j, 2);
-                String itemName = map.getTileProperty(tileID, "ItemName", "");
-                if (!itemName.equals("")) {
-                    // Create the character rectangle (SET SIZE ACCORDING TO PROPERTIES)
-                    Rectangle itemRectangle = new Rectangle(
-                            (float)i * map.getTileWidth(), (float)j * map.getTileHeight(),
-                            map.getTileWidth(), map.getTileHeight());
-                    items.add(new Item(itemRectangle, itemName));
-                }
+        for (RoomData.Placement character : roomData.getCharacters()) {
+            // Create the character rectangle (SET SIZE ACCORDING TO PROPERTIES)
+            Rectangle characterRectangle = new Rectangle((float)character.getTileX() * tileWidth,
+                    (float)character.getTileY() * tileHeight, tileWidth, tileHeight);
+            // Add the character to the room's characters, with a projectile belonging to it
+            Character newCharacter = new Character(characterRectangle, character.getName(),
+                    character.getType(), 0.1f);
+            characters.add(newCharacter);
+            charactersByName.put(newCharacter.getName(), newCharacter);
+            Projectile projectile = new Projectile(new Rectangle(0, 0, 44, 42),
+                    "fireball", newCharacter.getId(), 20, 0.5f);
+            projectiles.add(projectile);
+            // Enemies shoot their projectile when they have reloaded
+            scheduleShot(projectile);
+        }
 
-                // Check for characters on characters layer
-                tileID = map.getTileId(i, j, 3);
-                String characterName = map.getTileProperty(tileID, "CharacterName", "");
-                String characterType = map.getTileProperty(tileID, "CharacterType", "");
-                if (!characterName.equals("")) {
-                    // Create the character rectangle (SET SIZE ACCORDING TO PROPERTIES)
-                    Rectangle characterRectangle = new Rectangle(
-                            (float)i * map.getTileWidth(), (float)j * map.getTileHeight(),
-                            map.getTileWidth(), map.getTileHeight());
-                    // Add the character to the room's characters
-                    Character characterToBeAdded = new Character(characterRectangle, characterName, characterType, 0.1f);
-                    characters.add(characterToBeAdded);
-                    projectiles.add(new Projectile(new Rectangle(0, 0, 44, 42),
-                            "fireball", characterName, 20, 0.5f));
-                }
-            }
+        // Index the exits, items and characters, four by four tiles per cell
+        int cellSize = 4 * map.getTileWidth();
+        exitIndex = new SpatialIndex<>(map.getWidth() * map.getTileWidth(),
+                map.getHeight() * map.getTileHeight(), cellSize);
+        itemIndex = new SpatialIndex<>(map.getWidth() * map.getTileWidth(),
+                map.getHeight() * map.getTileHeight(), cellSize);
+        characterIndex = new SpatialIndex<>(map.getWidth() * map.getTileWidth(),
+                map.getHeight() * map.getTileHeight(), cellSize);
+        for (Exit exit : exits) {
+            exitIndex.insert(exit, exit.getRect());
+        }
+        for (Item item : items) {
+            itemIndex.insert(item, item.getRect());
+        }
+        for (Character character : characters) {
+            characterIndex.insert(character, character.getRect());
         }
     }
 
@@ -268,6 +434,7 @@ public class Room {
             Item nextItem = it.next();
             if (item.equals(nextItem)) {
                 it.remove();
+                itemIndex.remove(item);
                 return;
             }
         }
@@ -279,36 +446,75 @@ public class Room {
      */
     public void addItem(Item item) {
         items.add(item);
+        itemIndex.insert(item, item.getRect());
     }
 
     /**
      * Checks if all characters are alive, if a characters health is zero or below,
-     * the character is removed from the room
+     * the character is removed from the room and its animation frames are given back, and so
+     * is its projectile once it is not flying
+     * @throws SlickException If a texture can't be destroyed
      */
-    public void checkIfAlive(GameState gameState) {
+    public void checkIfAlive(GameState gameState) throws SlickException {
         Iterator<Character> it = characters.iterator();
         while (it.hasNext()) {
             Character character = it.next();
             if (character.getHealth() <= 0) {
                 it.remove();
+                characterIndex.remove(character);
+                charactersByName.remove(character.getName());
+                character.releaseAnimations();
+                EntityRegistry.release(character.getId());
+                // Its projectile is removed once it isn't flying
+                projectilesToRemove = true;
 
                 // Check if the character was a win condition
-                String[] winCondition = Tools.getWinCondition("res/rooms/win.txt");
-                if (getName().equals(winCondition[0])
-                        && character.getName().equals(winCondition[1])) {
+                if (getName().equals(Settings.get().getWinRoom())
+                        && character.getName().equals(Settings.get().getWinCharacter())) {
                     gameState.winGame();
                 }
             }
         }
     }
 
+    /**
+     * Removes the projectiles of dead characters that aren't flying, a projectile that is still
+     * flying is removed after it has hit something. Their animation frames are given back and
+     * their ids are released
+     * @throws SlickException If a texture can't be destroyed
+     */
+    private void removeDeadCharactersProjectiles() throws SlickException {
+        projectilesToRemove = false;
+        Iterator<Projectile> it = projectiles.iterator();
+        while (it.hasNext()) {
+            Projectile projectile = it.next();
+            if (EntityRegistry.getCharacter(projectile.getOwnerId()) != null) {
+                continue;
+            }
+            if (projectile.isShot()) {
+                projectilesToRemove = true;
+            } else {
+                it.remove();
+                TimerWheel.Timer timer = shotTimers.remove(projectile);
+                if (timer != null) {
+                    timer.cancel();
+                }
+                projectile.releaseAnimations();
+                EntityRegistry.release(projectile.getId());
+            }
+        }
+    }
+
     /**
      * Highlight all the items in the player's range
      * @param playerRange The player's range
      */
     public void highlightItems(Circle playerRange) {
-        for (Item item : items) {
-            item.hightlight(playerRange);
+        itemIndex.query(playerRange.getCenterX() - playerRange.getRadius(),
+                playerRange.getCenterY() - playerRange.getRadius(),
+                2 * playerRange.getRadius(), 2 * playerRange.getRadius(), itemsInRange);
+        for (int i = 0; i < itemsInRange.size(); i++) {
+            itemsInRange.get(i).hightlight(playerRange);
         }
     }
 
@@ -326,90 +532,58 @@ public class Room {
     }
 
     /**
-     * Used when the player changes room, sets the new locations of the blocks and entities
-     * in the room to correct location according to the spawn location
-     * @param spawnX
-     * @param spawnY
-     */
-    public void updateSpawnOffset(float spawnX, float spawnY) {
-        // Set block locations
-        for (Rectangle block : blocks) {
-            block.setX(block.getX() - (float)xOffset + spawnX);
-            block.setY(block.getY() - (float)yOffset + spawnY);
-        }
-        // Set exit locations
-        for (Exit exit : exits) {
-            exit.getRect().setX(exit.getRect().getX() - (float)xOffset + spawnX);
-            exit.getRect().setY(exit.getRect().getY() - (float)yOffset + spawnY);
-        }
-        // Set item locations
-        for (Item item : items) {
-            item.getRect().setX(item.getRect().getX() - (float)xOffset + spawnX);
-            item.getRect().setY(item.getRect().getY() - (float)yOffset + spawnY);
-        }
-        // Set character locations
-        for (Character character : characters) {
-            character.getRect().setX(character.getRect().getX() - (float)xOffset + spawnX);
-            character.getRect().setY(character.getRect().getY() - (float)yOffset + spawnY);
-        }
-        // Set projectile locations
-        for (Projectile projectile : projectiles) {
-            projectile.getRect().setX(projectile.getRect().getX() - (float)xOffset + spawnX);
-            projectile.getRect().setY(projectile.getRect().getY() - (float)yOffset + spawnY);
-        }
-        xOffset = spawnX;
-        yOffset = spawnY;
-    }
-
-    /**
-     * @return The current offset, how much the player has moved inside the room
+     * Returns a character in this room by the name of the character, names of characters are
+     * unique in the game
+     * @param searchName The name of the character to be returned
+     * @return The character with a matching name, null if there is none in this room or it is dead
      */
-    public double[] getOffset() {
-        double[] toReturn = {xOffset, yOffset};
-        return toReturn;
+    public Character getCharacterByName(String searchName) {
+        return charactersByName.get(searchName);
     }
 
     /**
-     * Returns a character by the name of the character
-     * @param searchName The name of the character to be returned
-     * @return The character with a matching name
+     * Schedules the next shot of an enemy projectile, for when the enemy has reloaded and the
+     * player has been in the room long enough. Replaces the shot already scheduled, if any
+     * @param projectile The projectile
      */
-    public Character getCharacterByName(String searchName) {
-        for (Character character : characters) {
-            if (character.getName().equals(searchName)) {
-                return character;
-            }
+    private void scheduleShot(Projectile projectile) {
+        Character owner = EntityRegistry.getCharacter(projectile.getOwnerId());
+        if (owner == null || !owner.getType().equals("enemy")) {
+            return;
         }
-        return null;
+        TimerWheel.Timer oldTimer = shotTimers.get(projectile);
+        if (oldTimer != null) {
+            oldTimer.cancel();
+        }
+        long readyTime = Math.max(projectile.getLastShot() + owner.getShootingInterval(),
+                enterTime + ENTER_GRACE_PERIOD) + 1;
+        shotTimers.put(projectile, timers.scheduleAt(readyTime, () -> shoot(projectile)));
     }
 
     /**
-     * Makes enemies shoot fireballs
-     * @param gameState GameState object
+     * Makes an enemy shoot its projectile, run by the timer scheduled by scheduleShot
+     * @param projectile The projectile
      */
-    private void EnemyShootFireballs(GameState gameState) {
-        for (Projectile projectile : projectiles) {
-            if (getCharacterByName(projectile.getBelongsTo()) != null) {
-                // If the character's projectile isn't shot and the character is an enemy
-                // and the current state is the default sate
-                if (!projectile.isShot() && gameState.getCurrentState().equals("default")
-                        && getCharacterByName(projectile.getBelongsTo()).getType().equals("enemy")) {
-                    date = new Date();
-                    // Check if the time elapsed since the last projectile shot is more than
-                    // a given amount of time and that the player just didn't enter the room
-                    if ((date.getTime() - projectile.getLastShot())
-                            > getCharacterByName(projectile.getBelongsTo()).getShootingInterval()
-                            && (date.getTime() - enterTime) > 1000) {
-                        // Set the current time to "the last time shot" and shoot a new projectile
-                        projectile.toggleShotLastTime(date.getTime());
-                        projectile.shoot(
-                                getCharacterByName(projectile.getBelongsTo()).getRect().getCenterX(),
-                                getCharacterByName(projectile.getBelongsTo()).getRect().getCenterY(),
-                                getCharacterByName(projectile.getBelongsTo()).getLastDirection());
-                    }
-                }
-            }
+    private void shoot(Projectile projectile) {
+        shotTimers.remove(projectile);
+        // The owner is null if it is dead. A projectile that is still flying is scheduled again
+        // when it hits something
+        Character owner = EntityRegistry.getCharacter(projectile.getOwnerId());
+        if (owner == null || projectile.isShot()) {
+            return;
+        }
+        long time = GameClock.getTime();
+        if (time - projectile.getLastShot() <= owner.getShootingInterval()
+                || time - enterTime <= ENTER_GRACE_PERIOD) {
+            // The player entered the room again since the shot was scheduled
+            scheduleShot(projectile);
+            return;
         }
+        // Set the current time to "the last time shot" and shoot a new projectile
+        projectile.toggleShotLastTime(time);
+        projectile.shoot(owner.getRect().getCenterX(), owner.getRect().getCenterY(),
+                owner.getLastDirection());
+        scheduleShot(projectile);
     }
 
     /**
@@ -0,0 +1,57 @@
+import org.newdawn.slick.SlickException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * The RoomBaker class bakes the rooms of the game to binary .room-files, which load much faster
+ * than the .tmx-files. Run it again after changing a map or one of its .tsx-files, a room with an
+ * out of date bake is read from its .tmx-file until it is baked again.
+ *
+ * Usage: java RoomBaker [room names] (all rooms in rooms.txt if none are given)
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class RoomBaker {
+
+    /**
+     * The main method, bakes the rooms.
+     *
+     * @param args Command-line arguments, the names of the rooms to bake.
+     * @throws SlickException If a map can't be read.
+     * @throws IOException If a baked file can't be written.
+     */
+    public static void main(String[] args) throws SlickException, IOException {
+        ArrayList<String> roomNames = new ArrayList<>();
+        if (args.length > 0) {
+            for (String arg : args) {
+                roomNames.add(arg);
+            }
+        } else {
+            for (String line : Tools.readFileToArray("res/rooms/rooms.txt")) {
+                roomNames.add(line.split(" ")[0]);
+            }
+        }
+
+        for (String roomName : roomNames) {
+            File mapFile = new File(RoomData.getMapPath(roomName));
+            File bakedFile = new File(RoomData.getBakedPath(roomName));
+
+            long start = System.nanoTime();
+            RoomData roomData = RoomData.fromMap(new MapData(mapFile.getPath()));
+            long readTime = System.nanoTime() - start;
+            roomData.writeBaked(bakedFile, mapFile);
+
+            // Time loading the bake, to show what it saves
+            start = System.nanoTime();
+            RoomData.load(roomName);
+            long loadTime = System.nanoTime() - start;
+
+            System.out.println("Baked " + roomName + ": " + mapFile.length() + " -> "
+                    + bakedFile.length() + " bytes, read in " + readTime / 1000 + " us, "
+                    + "baked loads in " + loadTime / 1000 + " us");
+        }
+    }
+}
@@ -0,0 +1,426 @@
+import org.newdawn.slick.SlickException;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * The RoomData class holds what a room is built from: the map, the blocked tiles and where the
+ * exits, items and characters are placed. It is found by going through the tile properties of a
+ * map once, and can be baked to a binary .room-file next to the .tmx-file so the next launch
+ * doesn't have to read the XML at all. A baked room is memory-mapped and copied straight into
+ * the arrays. The bake is only used if it was made from the .tmx-file and its .tsx-files as they
+ * are now, otherwise the .tmx-file is read as before. The tile set images aren't part of the
+ * bake, only their paths, so they can be changed without baking again as long as the tile sets
+ * still describe them.
+ *
+ * The .room-file starts with the magic number, the version and the length and modification time
+ * of the .tmx-file it was baked from, then the path, length and modification time of every
+ * .tsx-file the map uses, followed by the map, the tile sets, the layers, the blocked tiles and
+ * the exits, items and characters.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class RoomData {
+    // "ROOM" in ASCII, and the version of the file format
+    public static final int MAGIC = 0x524F4F4D;
+    public static final int VERSION = 2;
+
+    private MapData map;
+    private CollisionMap collisionMap;
+    private ArrayList<Placement> exits;
+    private ArrayList<Placement> items;
+    private ArrayList<Placement> characters;
+
+    /**
+     * Something placed on a tile of the map, an exit, an item or a character.
+     */
+    public static class Placement {
+        private int tileX;
+        private int tileY;
+        private String name;
+        private String type;
+        private int spawnX;
+        private int spawnY;
+
+        /**
+         * Constructor of the Placement class.
+         *
+         * @param tileX X coordinate of the tile (in tiles).
+         * @param tileY Y coordinate of the tile (in tiles).
+         * @param name Name of the item or character, or the destination of the exit.
+         * @param type Type of the character ("" for exits and items).
+         * @param spawnX Spawn x-location of the exit (0 for items and characters).
+         * @param spawnY Spawn y-location of the exit (0 for items and characters).
+         */
+        public Placement(int tileX, int tileY, String name, String type, int spawnX, int spawnY) {
+            this.tileX = tileX;
+            this.tileY = tileY;
+            this.name = name;
+            this.type = type;
+            this.spawnX = spawnX;
+            this.spawnY = spawnY;
+        }
+
+        /**
+         * @return X coordinate of the tile (in tiles).
+         */
+        public int getTileX() { return tileX; }
+
+        /**
+         * @return Y coordinate of the tile (in tiles).
+         */
+        public int getTileY() { return tileY; }
+
+        /**
+         * @return Name of the item or character, or the destination of the exit.
+         */
+        public String getName() { return name; }
+
+        /**
+         * @return Type of the character ("" for exits and items).
+         */
+        public String getType() { return type; }
+
+        /**
+         * @return Spawn x-location of the exit.
+         */
+        public int getSpawnX() { return spawnX; }
+
+        /**
+         * @return Spawn y-location of the exit.
+         */
+        public int getSpawnY() { return spawnY; }
+    }
+
+    /**
+     * Constructor of the RoomData class.
+     *
+     * @param map The map of the room.
+     * @param collisionMap The blocked tiles of the room.
+     * @param exits The exits, in the order they are found in the map.
+     * @param items The items, in the order they are found in the map.
+     * @param characters The characters, in the order they are found in the map.
+     */
+    public RoomData(MapData map, CollisionMap collisionMap, ArrayList<Placement> exits,
+                    ArrayList<Placement> items, ArrayList<Placement> characters) {
+        this.map = map;
+        this.collisionMap = collisionMap;
+        this.exits = exits;
+        this.items = items;
+        this.characters = characters;
+    }
+
+    /**
+     * Method used to find the blocked tiles, exits, items and characters of a map, looping
+     * through its tiles column by column. Blocked tiles and exits are on layer 1, items on
+     * layer 2 and characters on layer 3.
+     *
+     * @param map The map, read from its .tmx-file.
+     * @return The room data of the map.
+     */
+    public static RoomData fromMap(MapData map) {
+        CollisionMap collisionMap = new CollisionMap(map.getWidth(), map.getHeight(),
+                map.getTileWidth(), map.getTileHeight());
+        ArrayList<Placement> exits = new ArrayList<>();
+        ArrayList<Placement> items = new ArrayList<>();
+        ArrayList<Placement> characters = new ArrayList<>();
+
+        for (int i = 0; i < map.getWidth(); i++) {
+            for (int j = 0; j < map.getHeight(); j++) {
+                int tileID = map.getTileId(i, j, 1);
+
+                // Check for blocked tiles
+                if (map.getTileProperty(tileID, "Blocked", "false").equals("true")) {
+                    collisionMap.setBlocked(i, j);
+                }
+
+                // Check for exit tiles
+                String destination = map.getTileProperty(tileID, "Exit", "");
+                if (!destination.equals("")) {
+                    exits.add(new Placement(i, j, destination, "",
+                            Integer.parseInt(map.getTileProperty(tileID, "SpawnX", "")),
+                            Integer.parseInt(map.getTileProperty(tileID, "SpawnY", ""))));
+                }
+
+                // Check for objects on item layer
+                tileID = map.getTileId(i, j, 2);
+                String itemName = map.getTileProperty(tileID, "ItemName", "");
+                if (!itemName.equals("")) {
+                    items.add(new Placement(i, j, itemName, "", 0, 0));
+                }
+
+                // Check for characters on characters layer
+                tileID = map.getTileId(i, j, 3);
+                String characterName = map.getTileProperty(tileID, "CharacterName", "");
+                if (!characterName.equals("")) {
+                    characters.add(new Placement(i, j, characterName,
+                            map.getTileProperty(tileID, "CharacterType", ""), 0, 0));
+                }
+            }
+        }
+        return new RoomData(map, collisionMap, exits, items, characters);
+    }
+
+    /**
+     * Method used to load a room, from its baked .room-file if it is up to date and from its
+     * .tmx-file otherwise.
+     *
+     * @param roomName Name of the room.
+     * @return The room data.
+     * @throws SlickException If the room can't be read.
+     */
+    public static RoomData load(String roomName) throws SlickException {
+        File mapFile = new File(getMapPath(roomName));
+        File bakedFile = new File(getBakedPath(roomName));
+        if (bakedFile.exists()) {
+            try {
+                RoomData roomData = readBaked(bakedFile, mapFile);
+                if (roomData != null) {
+                    return roomData;
+                }
+                System.out.println("Room " + roomName + ": bake is out of date, reading "
+                        + mapFile.getPath());
+            } catch (IOException ex) {
+                System.out.println("Room " + roomName + ": could not read bake, reading "
+                        + mapFile.getPath() + " (" + ex.getMessage() + ")");
+            }
+        }
+        return fromMap(new MapData(mapFile.getPath()));
+    }
+
+    /**
+     * Method used to bake the room to a .room-file.
+     *
+     * @param bakedFile The file to write.
+     * @param mapFile The .tmx-file the room was read from.
+     * @throws IOException If the file can't be written.
+     */
+    public void writeBaked(File bakedFile, File mapFile) throws IOException {
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(bakedFile)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(mapFile.length());
+            out.writeLong(mapFile.lastModified());
+            out.writeInt(map.getTileSetFiles().size());
+            for (String tileSetPath : map.getTileSetFiles()) {
+                File tileSetFile = new File(tileSetPath);
+                writeString(out, tileSetPath);
+                out.writeLong(tileSetFile.length());
+                out.writeLong(tileSetFile.lastModified());
+            }
+
+            out.writeInt(map.getWidth());
+            out.writeInt(map.getHeight());
+            out.writeInt(map.getTileWidth());
+            out.writeInt(map.getTileHeight());
+
+            out.writeInt(map.getTileSets().size());
+            for (MapData.TileSetData tileSet : map.getTileSets()) {
+                out.writeInt(tileSet.getFirstGid());
+                out.writeInt(tileSet.getTileCount());
+                out.writeInt(tileSet.getTileWidth());
+                out.writeInt(tileSet.getTileHeight());
+                out.writeInt(tileSet.getSpacing());
+                out.writeInt(tileSet.getMargin());
+                out.writeInt(tileSet.getColumns());
+                writeString(out, tileSet.getImagePath());
+            }
+
+            out.writeInt(map.getLayerCount());
+            for (int layer = 0; layer < map.getLayerCount(); layer++) {
+                for (int tileId : map.getLayer(layer)) {
+                    out.writeInt(tileId);
+                }
+            }
+
+            long[] bits = collisionMap.getBits();
+            out.writeInt(bits.length);
+            for (long word : bits) {
+                out.writeLong(word);
+            }
+
+            writePlacements(out, exits);
+            writePlacements(out, items);
+            writePlacements(out, characters);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads a baked room by memory-mapping the file and copying the arrays out of it.
+     *
+     * @param bakedFile The .room-file.
+     * @param mapFile The .tmx-file the room should have been baked from.
+     * @return The room data, or null if the bake is out of date.
+     * @throws IOException If the file can't be read.
+     */
+    private static RoomData readBaked(File bakedFile, File mapFile) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(bakedFile, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (in.getInt() != MAGIC || in.getShort() != VERSION
+                    || in.getLong() != mapFile.length()
+                    || in.getLong() != mapFile.lastModified()) {
+                return null;
+            }
+            // The tile sets stored in their own files must not have changed either
+            int tileSetFileCount = in.getInt();
+            for (int i = 0; i < tileSetFileCount; i++) {
+                File tileSetFile = new File(readString(in));
+                if (in.getLong() != tileSetFile.length()
+                        || in.getLong() != tileSetFile.lastModified()) {
+                    return null;
+                }
+            }
+
+            int width = in.getInt();
+            int height = in.getInt();
+            int tileWidth = in.getInt();
+            int tileHeight = in.getInt();
+
+            int tileSetCount = in.getInt();
+            ArrayList<MapData.TileSetData> tileSets = new ArrayList<>();
+            for (int i = 0; i < tileSetCount; i++) {
+                tileSets.add(new MapData.TileSetData(in.getInt(), in.getInt(), in.getInt(),
+                        in.getInt(), in.getInt(), in.getInt(), in.getInt(), readString(in)));
+            }
+
+            // The layers are copied in bulk, an int at a time would be many times slower
+            int layerCount = in.getInt();
+            ArrayList<int[]> layers = new ArrayList<>();
+            for (int i = 0; i < layerCount; i++) {
+                int[] tiles = new int[width * height];
+                in.asIntBuffer().get(tiles);
+                in.position(in.position() + tiles.length * 4);
+                layers.add(tiles);
+            }
+
+            long[] bits = new long[in.getInt()];
+            in.asLongBuffer().get(bits);
+            in.position(in.position() + bits.length * 8);
+
+            MapData map = new MapData(width, height, tileWidth, tileHeight, layers, tileSets);
+            CollisionMap collisionMap = new CollisionMap(width, height, tileWidth, tileHeight,
+                    bits);
+            ArrayList<Placement> exits = readPlacements(in);
+            ArrayList<Placement> items = readPlacements(in);
+            ArrayList<Placement> characters = readPlacements(in);
+            return new RoomData(map, collisionMap, exits, items, characters);
+        } catch (RuntimeException ex) {
+            // A cut off or broken file runs out of bytes somewhere in the middle
+            throw new IOException("broken file " + bakedFile.getPath(), ex);
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * @param out The stream to write to.
+     * @param placements The placements to write.
+     * @throws IOException If the stream can't be written.
+     */
+    private static void writePlacements(DataOutputStream out, ArrayList<Placement> placements)
+            throws IOException {
+        out.writeInt(placements.size());
+        for (Placement placement : placements) {
+            out.writeInt(placement.tileX);
+            out.writeInt(placement.tileY);
+            writeString(out, placement.name);
+            writeString(out, placement.type);
+            out.writeInt(placement.spawnX);
+            out.writeInt(placement.spawnY);
+        }
+    }
+
+    /**
+     * @param in The buffer to read from.
+     * @return The placements read.
+     */
+    private static ArrayList<Placement> readPlacements(ByteBuffer in) {
+        int count = in.getInt();
+        ArrayList<Placement> placements = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            placements.add(new Placement(in.getInt(), in.getInt(), readString(in), readString(in),
+                    in.getInt(), in.getInt()));
+        }
+        return placements;
+    }
+
+    /**
+     * Writes a string as its length followed by its UTF-8 bytes.
+     *
+     * @param out The stream to write to.
+     * @param text The string to write.
+     * @throws IOException If the stream can't be written.
+     */
+    private static void writeString(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * @param in The buffer to read from.
+     * @return The string read.
+     */
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param roomName Name of the room.
+     * @return Path to the .tmx-file of the room.
+     */
+    public static String getMapPath(String roomName) {
+        return "res/rooms/" + roomName + ".tmx";
+    }
+
+    /**
+     * @param roomName Name of the room.
+     * @return Path to the baked .room-file of the room.
+     */
+    public static String getBakedPath(String roomName) {
+        return "res/rooms/" + roomName + ".room";
+    }
+
+    /**
+     * @return The map of the room.
+     */
+    public MapData getMap() { return map; }
+
+    /**
+     * @return The blocked tiles of the room.
+     */
+    public CollisionMap getCollisionMap() { return collisionMap; }
+
+    /**
+     * @return The exits, in the order they are found in the map.
+     */
+    public ArrayList<Placement> getExits() { return exits; }
+
+    /**
+     * @return The items, in the order they are found in the map.
+     */
+    public ArrayList<Placement> getItems() { return items; }
+
+    /**
+     * @return The characters, in the order they are found in the map.
+     */
+    public ArrayList<Placement> getCharacters() { return characters; }
+}
@@ -0,0 +1,80 @@
+import org.newdawn.slick.SlickException;
+
+import java.util.HashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The RoomLoader class reads the maps of rooms on a background thread, so a room can be ready
+ * before the player walks into it. The baked .room-file is used if it is up to date, otherwise
+ * the .tmx-file. Only the map file is read in the background, the room itself
+ * (its characters, items and images) must be built on the thread that owns the OpenGL context.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class RoomLoader {
+    private ExecutorService executor;
+
+    // The maps that are read or being read, by room name
+    private HashMap<String, Future<RoomData>> maps;
+
+    /**
+     * Constructor of the RoomLoader class, starts the background thread.
+     */
+    public RoomLoader() {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "room-loader");
+            // The loader must not keep the game running when the window is closed
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        maps = new HashMap<>();
+    }
+
+    /**
+     * Method used to start reading the map of a room in the background, if it isn't already.
+     *
+     * @param roomName Name of the room.
+     */
+    public void prefetch(String roomName) {
+        if (!maps.containsKey(roomName)) {
+            maps.put(roomName, executor.submit(() -> RoomData.load(roomName)));
+        }
+    }
+
+    /**
+     * @param roomName Name of the room.
+     * @return True if the map of the room has been read and can be taken without waiting.
+     */
+    public boolean isReady(String roomName) {
+        Future<RoomData> map = maps.get(roomName);
+        return map != null && map.isDone();
+    }
+
+    /**
+     * Method used to get the map of a room. Waits for the background thread if the map is being
+     * read, and reads it right away if it was never prefetched.
+     *
+     * @param roomName Name of the room.
+     * @return The map of the room and what is placed in it.
+     * @throws SlickException If the map can't be read.
+     */
+    public RoomData take(String roomName) throws SlickException {
+        Future<RoomData> map = maps.remove(roomName);
+        if (map == null) {
+            return RoomData.load(roomName);
+        }
+        try {
+            return map.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SlickException("Interrupted while loading room " + roomName, ex);
+        } catch (ExecutionException ex) {
+            throw new SlickException("Failed to load room " + roomName, ex.getCause());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+import java.util.ArrayList;
+
+/**
+ * The ScriptedInput class reads the keys from a script instead of the keyboard. Every line of the
+ * script is the number of ticks followed by the keys to hold down during those ticks, like this:
+ * <pre>
+ * 1 D
+ * 300 LEFT
+ * 20
+ * </pre>
+ * The keys are also pressed in the first tick of the line. A line with no keys waits. When the
+ * script ends it starts over.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class ScriptedInput extends InputSource {
+    private int[] ticks;
+    private int[] keys;
+
+    // The current line of the script and how many ticks are left of it
+    private int line;
+    private int ticksLeft;
+
+    /**
+     * Constructor of the ScriptedInput class.
+     *
+     * @param scriptLines The lines of the script.
+     */
+    public ScriptedInput(ArrayList<String> scriptLines) {
+        ArrayList<String> steps = new ArrayList<>();
+        for (String scriptLine : scriptLines) {
+            if (!scriptLine.trim().equals("")) {
+                steps.add(scriptLine.trim());
+            }
+        }
+
+        ticks = new int[steps.size()];
+        keys = new int[steps.size()];
+        for (int i = 0; i < steps.size(); i++) {
+            String[] ticksAndKeys = steps.get(i).split("\\s+");
+            ticks[i] = Math.max(1, Integer.parseInt(ticksAndKeys[0]));
+            for (int j = 1; j < ticksAndKeys.length; j++) {
+                keys[i] |= keyBit(ticksAndKeys[j]);
+            }
+        }
+        line = -1;
+        ticksLeft = 0;
+    }
+
+    /**
+     * Moves one tick forward in the script.
+     *
+     * @param delta Length of the tick (ms).
+     */
+    @Override
+    public void poll(int delta) {
+        if (ticks.length == 0) {
+            setKeys(0, 0);
+            return;
+        }
+        boolean newLine = false;
+        while (ticksLeft <= 0) {
+            line = (line + 1) % ticks.length;
+            ticksLeft = ticks[line];
+            newLine = true;
+        }
+        ticksLeft--;
+        setKeys(keys[line], newLine ? keys[line] : 0);
+    }
+}
@@ -0,0 +1,276 @@
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The Settings class holds the settings of the game from settings.txt and the win condition from
+ * win.txt. The files are read once and every setting is checked, a missing or invalid setting is
+ * reported and replaced by its default. The settings can be watched, so a change to the files is
+ * picked up while the game is running without the game loop ever reading them. Settings that are
+ * read when they are used, like the win condition, change right away. The listeners apply the
+ * rest, the window size and the tick length are only read when the game starts.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class Settings {
+    public static final String SETTINGS_PATH = "res/settings.txt";
+    public static final String WIN_CONDITION_PATH = "res/rooms/win.txt";
+
+    // The settings in use, replaced as a whole when the files change
+    private static volatile Settings current = null;
+    private static CopyOnWriteArrayList<SettingsListener> listeners = new CopyOnWriteArrayList<>();
+    private static Thread watcher = null;
+
+    private int width;
+    private int height;
+    private int fpsLimit;
+    private boolean debugEnabled;
+    private int startScreenTime;
+    private int endScreenTime;
+    private boolean mergeBlocks;
+    private int tickLength;
+    private int inventoryCapacity;
+    private String winRoom;
+    private String winCharacter;
+
+    /**
+     * Method used to get the settings in use, reading the files the first time.
+     *
+     * @return The settings.
+     */
+    public static Settings get() {
+        if (current == null) {
+            synchronized (Settings.class) {
+                if (current == null) {
+                    current = read(SETTINGS_PATH, WIN_CONDITION_PATH);
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Method used to read and check the settings files.
+     *
+     * @param settingsPath Path of the settings file, lines like "WIDTH=800".
+     * @param winConditionPath Path of the win condition file, the room and the character to
+     *                         beat on the first line.
+     * @return The settings.
+     */
+    public static Settings read(String settingsPath, String winConditionPath) {
+        HashMap<String, String> values = new HashMap<>();
+        ArrayList<String> lines = Tools.readFileToArray(settingsPath);
+        if (lines == null) {
+            System.out.println("Could not read " + settingsPath + ", using the default settings");
+            lines = new ArrayList<>();
+        }
+        for (String line : lines) {
+            String[] splitLine = line.split("=");
+            if (splitLine.length == 2) {
+                values.put(splitLine[0].trim(), splitLine[1].trim());
+            } else if (!line.trim().equals("")) {
+                System.out.println("Invalid line in " + settingsPath + ": " + line);
+            }
+        }
+
+        Settings settings = new Settings();
+        settings.width = readInt(values, "WIDTH", 800, 1, 16384);
+        settings.height = readInt(values, "HEIGHT", 600, 1, 16384);
+        settings.fpsLimit = readInt(values, "FPS_LIMIT", 60, 1, 10000);
+        settings.debugEnabled = readInt(values, "DEBUG_ENABLED", 0, 0, 1) == 1;
+        settings.startScreenTime = readInt(values, "START_SCREEN_TIME", 1500, 0, 600000);
+        settings.endScreenTime = readInt(values, "END_SCREEN_TIME", 1500, 0, 600000);
+        settings.mergeBlocks = readInt(values, "MERGE_BLOCKS", 1, 0, 1) == 1;
+        settings.tickLength = readInt(values, "TICK_LENGTH", 8, 1, 1000);
+        settings.inventoryCapacity = readInt(values, "INVENTORY_CAPACITY", 10, 1, 1000);
+        for (String key : values.keySet()) {
+            System.out.println("Unknown setting in " + settingsPath + ": " + key);
+        }
+
+        // The room and the character to beat, on the first line
+        settings.winRoom = "";
+        settings.winCharacter = "";
+        ArrayList<String> winLines = Tools.readFileToArray(winConditionPath);
+        if (winLines == null || winLines.isEmpty() || winLines.get(0).trim().split(" ").length != 2) {
+            System.out.println("Could not read the win condition from " + winConditionPath
+                    + ", the game can't be won");
+        } else {
+            String[] winCondition = winLines.get(0).trim().split(" ");
+            settings.winRoom = winCondition[0];
+            settings.winCharacter = winCondition[1];
+        }
+        return settings;
+    }
+
+    /**
+     * Method used to start watching the settings files. When one of them changes, the settings
+     * are read again and the listeners are told.
+     */
+    public static synchronized void watch() {
+        if (watcher != null) {
+            return;
+        }
+        try {
+            WatchService watchService = FileSystems.getDefault().newWatchService();
+            Path settingsFolder = Paths.get(SETTINGS_PATH).toAbsolutePath().getParent();
+            Path winConditionFolder = Paths.get(WIN_CONDITION_PATH).toAbsolutePath().getParent();
+            settingsFolder.register(watchService, StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_CREATE);
+            winConditionFolder.register(watchService, StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_CREATE);
+
+            watcher = new Thread(() -> watchFiles(watchService), "settings-watcher");
+            // The watcher must not keep the game running when the window is closed
+            watcher.setDaemon(true);
+            watcher.start();
+        } catch (IOException ex) {
+            System.out.println("Can't watch the settings files: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Waits for changes to the settings files until the thread is stopped.
+     *
+     * @param watchService The watch service the folders of the files are registered with.
+     */
+    private static void watchFiles(WatchService watchService) {
+        Path settingsFile = Paths.get(SETTINGS_PATH).getFileName();
+        Path winConditionFile = Paths.get(WIN_CONDITION_PATH).getFileName();
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException ex) {
+                return;
+            }
+            boolean changed = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                Object file = event.context();
+                if (settingsFile.equals(file) || winConditionFile.equals(file)) {
+                    changed = true;
+                }
+            }
+            key.reset();
+
+            if (changed) {
+                // Editors often write a file in more than one step, wait for the last one
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                WatchKey more = watchService.poll();
+                while (more != null) {
+                    more.pollEvents();
+                    more.reset();
+                    more = watchService.poll();
+                }
+                current = read(SETTINGS_PATH, WIN_CONDITION_PATH);
+                for (SettingsListener listener : listeners) {
+                    listener.settingsChanged(current);
+                }
+            }
+        }
+    }
+
+    /**
+     * Method used to be told when the settings change.
+     *
+     * @param listener The listener.
+     */
+    public static void addListener(SettingsListener listener) { listeners.add(listener); }
+
+    /**
+     * Reads and checks a whole number setting, and removes it from the values.
+     *
+     * @param values The values read from the file, by key.
+     * @param key Name of the setting.
+     * @param defaultValue Value used if the setting is missing or invalid.
+     * @param min The lowest valid value.
+     * @param max The highest valid value.
+     * @return The value of the setting.
+     */
+    private static int readInt(HashMap<String, String> values, String key, int defaultValue,
+                               int min, int max) {
+        String value = values.remove(key);
+        if (value == null) {
+            System.out.println("Setting " + key + " is missing, using " + defaultValue);
+            return defaultValue;
+        }
+        try {
+            int intValue = Integer.parseInt(value);
+            if (intValue >= min && intValue <= max) {
+                return intValue;
+            }
+        } catch (NumberFormatException ex) {
+            // Reported below, the same as a value out of range
+        }
+        System.out.println("Setting " + key + "=" + value + " is invalid (should be " + min
+                + " to " + max + "), using " + defaultValue);
+        return defaultValue;
+    }
+
+    /**
+     * @return Width of the window (px).
+     */
+    public int getWidth() { return width; }
+
+    /**
+     * @return Height of the window (px).
+     */
+    public int getHeight() { return height; }
+
+    /**
+     * @return The highest number of frames per second.
+     */
+    public int getFpsLimit() { return fpsLimit; }
+
+    /**
+     * @return True if the debug mode may be turned on.
+     */
+    public boolean isDebugEnabled() { return debugEnabled; }
+
+    /**
+     * @return How long the start screen is shown (ms).
+     */
+    public int getStartScreenTime() { return startScreenTime; }
+
+    /**
+     * @return How long the game over and win screens are shown (ms).
+     */
+    public int getEndScreenTime() { return endScreenTime; }
+
+    /**
+     * @return True if the blocked tiles are merged into larger rectangles.
+     */
+    public boolean isMergeBlocks() { return mergeBlocks; }
+
+    /**
+     * @return Length of a simulation tick (ms).
+     */
+    public int getTickLength() { return tickLength; }
+
+    /**
+     * @return Number of items the player can carry.
+     */
+    public int getInventoryCapacity() { return inventoryCapacity; }
+
+    /**
+     * @return Name of the room with the character to beat to win the game.
+     */
+    public String getWinRoom() { return winRoom; }
+
+    /**
+     * @return Name of the character to beat to win the game.
+     */
+    public String getWinCharacter() { return winCharacter; }
+}
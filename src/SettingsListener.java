@@ -0,0 +1,14 @@
+/**
+ * A SettingsListener is told when the settings files have changed and have been read again.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public interface SettingsListener {
+    /**
+     * Runs on the thread watching the files, after the new settings are in use.
+     *
+     * @param settings The new settings.
+     */
+    void settingsChanged(Settings settings);
+}
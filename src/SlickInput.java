@@ -0,0 +1,40 @@
+import org.newdawn.slick.Input;
+
+/**
+ * The SlickInput class reads the keys from the keyboard, through the Input of the game container.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class SlickInput extends InputSource {
+    private Input input;
+
+    /**
+     * Constructor of the SlickInput class.
+     *
+     * @param input The Input object of the game container.
+     */
+    public SlickInput(Input input) {
+        this.input = input;
+    }
+
+    /**
+     * Reads the keys from the keyboard. A pressed key is only reported in one tick.
+     *
+     * @param delta Length of the tick (ms).
+     */
+    @Override
+    public void poll(int delta) {
+        int downMask = 0;
+        int pressedMask = 0;
+        for (int i = 0; i < KEYS.length; i++) {
+            if (input.isKeyDown(KEYS[i])) {
+                downMask |= 1 << i;
+            }
+            if (input.isKeyPressed(KEYS[i])) {
+                pressedMask |= 1 << i;
+            }
+        }
+        setKeys(downMask, pressedMask);
+    }
+}
@@ -0,0 +1,30 @@
+import org.newdawn.slick.Image;
+
+/**
+ * The SlickSpriteRenderer class draws the batches of the RenderQueue with Slick. A batch binds
+ * its texture once and draws all of its sprites between a single begin and end.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class SlickSpriteRenderer implements SpriteRenderer {
+    // The image the current batch was started with
+    private Image batchImage;
+
+    @Override
+    public void beginBatch(Image image) {
+        batchImage = image;
+        image.startUse();
+    }
+
+    @Override
+    public void drawSprite(Image image, float x, float y) {
+        image.drawEmbedded(x, y, image.getWidth(), image.getHeight());
+    }
+
+    @Override
+    public void endBatch() {
+        batchImage.endUse();
+        batchImage = null;
+    }
+}
@@ -0,0 +1,201 @@
+import org.newdawn.slick.geom.Rectangle;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * A broadphase index for things that can move or come and go, like items, characters and exits.
+ * The room is divided into a uniform grid and every object is kept in the cells its rectangle
+ * covers. When an object moves only the cells it left and entered are touched, and a query only
+ * looks at the cells the queried box covers. Objects outside the room are kept in the edge cells.
+ *
+ * @param <T> The type of the indexed objects.
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class SpatialIndex<T> {
+    /**
+     * An object in the index, with the cells it is currently in.
+     */
+    private class Entry {
+        private T object;
+        private Rectangle rectangle;
+        private int firstColumn;
+        private int lastColumn;
+        private int firstRow;
+        private int lastRow;
+        // The last query that found the entry, so an entry in many cells is only returned once
+        private int lastQuery;
+    }
+
+    private int cellSize;
+    private int columns;
+    private int rows;
+
+    // The entries in every cell, cells are stored row by row
+    private ArrayList<ArrayList<Entry>> cells;
+    private HashMap<T, Entry> entries;
+    private int queryCount;
+
+    /**
+     * Constructor of the SpatialIndex class.
+     *
+     * @param width Width of the area to index (px).
+     * @param height Height of the area to index (px).
+     * @param cellSize Width and height of a cell (px).
+     */
+    public SpatialIndex(int width, int height, int cellSize) {
+        this.cellSize = cellSize;
+        columns = Math.max(1, (width + cellSize - 1) / cellSize);
+        rows = Math.max(1, (height + cellSize - 1) / cellSize);
+        cells = new ArrayList<>();
+        for (int i = 0; i < columns * rows; i++) {
+            cells.add(new ArrayList<>());
+        }
+        entries = new HashMap<>();
+        queryCount = 0;
+    }
+
+    /**
+     * Adds an object to the index.
+     *
+     * @param object The object to add.
+     * @param rectangle The rectangle of the object, read again every time the object is updated.
+     */
+    public void insert(T object, Rectangle rectangle) {
+        Entry entry = new Entry();
+        entry.object = object;
+        entry.rectangle = rectangle;
+        entry.lastQuery = queryCount;
+        setCells(entry);
+        addToCells(entry);
+        entries.put(object, entry);
+    }
+
+    /**
+     * Removes an object from the index.
+     *
+     * @param object The object to remove.
+     */
+    public void remove(T object) {
+        Entry entry = entries.remove(object);
+        if (entry != null) {
+            removeFromCells(entry);
+        }
+    }
+
+    /**
+     * Moves an object to the cells its rectangle covers now. Nothing happens if the object is
+     * still in the same cells, which is the case for most movement.
+     *
+     * @param object The object that has moved.
+     */
+    public void update(T object) {
+        Entry entry = entries.get(object);
+        if (entry == null) {
+            return;
+        }
+        Rectangle rectangle = entry.rectangle;
+        if (column(rectangle.getX()) == entry.firstColumn
+                && column(rectangle.getX() + rectangle.getWidth()) == entry.lastColumn
+                && row(rectangle.getY()) == entry.firstRow
+                && row(rectangle.getY() + rectangle.getHeight()) == entry.lastRow) {
+            return;
+        }
+        removeFromCells(entry);
+        setCells(entry);
+        addToCells(entry);
+    }
+
+    /**
+     * Finds the objects whose rectangles intersect a box. Touching counts as intersecting, the
+     * same way as Rectangle.intersects.
+     *
+     * @param x X coordinate of the box.
+     * @param y Y coordinate of the box.
+     * @param width Width of the box.
+     * @param height Height of the box.
+     * @param result Buffer that is cleared and filled with the objects found.
+     * @return The result buffer.
+     */
+    public ArrayList<T> query(float x, float y, float width, float height, ArrayList<T> result) {
+        result.clear();
+        queryCount++;
+
+        int lastColumn = column(x + width);
+        int lastRow = row(y + height);
+        for (int row = row(y); row <= lastRow; row++) {
+            for (int column = column(x); column <= lastColumn; column++) {
+                ArrayList<Entry> cell = cells.get(row * columns + column);
+                for (int i = 0; i < cell.size(); i++) {
+                    Entry entry = cell.get(i);
+                    Rectangle rectangle = entry.rectangle;
+                    if (entry.lastQuery != queryCount
+                            && x <= rectangle.getX() + rectangle.getWidth()
+                            && x + width >= rectangle.getX()
+                            && y <= rectangle.getY() + rectangle.getHeight()
+                            && y + height >= rectangle.getY()) {
+                        entry.lastQuery = queryCount;
+                        result.add(entry.object);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sets the cells of an entry from its rectangle.
+     *
+     * @param entry The entry.
+     */
+    private void setCells(Entry entry) {
+        Rectangle rectangle = entry.rectangle;
+        entry.firstColumn = column(rectangle.getX());
+        entry.lastColumn = column(rectangle.getX() + rectangle.getWidth());
+        entry.firstRow = row(rectangle.getY());
+        entry.lastRow = row(rectangle.getY() + rectangle.getHeight());
+    }
+
+    /**
+     * Adds an entry to all of its cells.
+     *
+     * @param entry The entry.
+     */
+    private void addToCells(Entry entry) {
+        for (int row = entry.firstRow; row <= entry.lastRow; row++) {
+            for (int column = entry.firstColumn; column <= entry.lastColumn; column++) {
+                cells.get(row * columns + column).add(entry);
+            }
+        }
+    }
+
+    /**
+     * Removes an entry from all of its cells.
+     *
+     * @param entry The entry.
+     */
+    private void removeFromCells(Entry entry) {
+        for (int row = entry.firstRow; row <= entry.lastRow; row++) {
+            for (int column = entry.firstColumn; column <= entry.lastColumn; column++) {
+                cells.get(row * columns + column).remove(entry);
+            }
+        }
+    }
+
+    /**
+     * @param x X coordinate.
+     * @return The column of the coordinate, clamped to the grid.
+     */
+    private int column(float x) {
+        return Math.max(0, Math.min(columns - 1, (int)Math.floor(x / cellSize)));
+    }
+
+    /**
+     * @param y Y coordinate.
+     * @return The row of the coordinate, clamped to the grid.
+     */
+    private int row(float y) {
+        return Math.max(0, Math.min(rows - 1, (int)Math.floor(y / cellSize)));
+    }
+}
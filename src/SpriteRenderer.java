@@ -0,0 +1,32 @@
+import org.newdawn.slick.Image;
+
+/**
+ * A SpriteRenderer draws the batches of sprites from the RenderQueue. Every batch uses a single
+ * texture, so the texture is bound once and all the sprites are sent in one go. The queue only
+ * talks to this interface, so the batching can run without a display.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public interface SpriteRenderer {
+    /**
+     * Starts a batch, binding the texture of an image.
+     *
+     * @param image The first image of the batch, all images in the batch share its texture.
+     */
+    void beginBatch(Image image);
+
+    /**
+     * Draws a sprite in the current batch.
+     *
+     * @param image The image, sharing the texture of the batch.
+     * @param x X location to draw the image at.
+     * @param y Y location to draw the image at.
+     */
+    void drawSprite(Image image, float x, float y);
+
+    /**
+     * Ends the current batch, sending the sprites.
+     */
+    void endBatch();
+}
@@ -0,0 +1,232 @@
+/**
+ * The TimerWheel class runs callbacks after a delay, like "fire in 3000 ms". It doesn't look at
+ * the wall clock, it moves forward when it is advanced, once per tick or frame, so timers on
+ * game time replay the same way every time. The timers are kept in wheels of 64 slots, the
+ * first wheel holds the timers due in the next 64 steps, every following wheel 64 times as many.
+ * A timer only moves down a wheel when its slot comes up, so advancing the wheel only costs as
+ * much as the timers that are actually due, however many are waiting.
+ *
+ * @author Oskar Eriksson and Gustave Rousselet
+ * @version 0.1
+ */
+public class TimerWheel {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    /**
+     * A scheduled callback, kept in a list with the other timers in the same slot.
+     */
+    public static class Timer {
+        private Runnable callback;
+        private long dueStep;
+        private Timer previous;
+        private Timer next;
+        // The wheel and slot the timer is in, no wheel once it has run or been cancelled
+        private TimerWheel wheel;
+        private int level;
+        private int slot;
+
+        /**
+         * Constructor of the Timer class.
+         *
+         * @param callback What to run when the timer is due.
+         * @param dueStep The step the timer is due at.
+         */
+        private Timer(Runnable callback, long dueStep) {
+            this.callback = callback;
+            this.dueStep = dueStep;
+        }
+
+        /**
+         * Method used to stop the timer before it is due, nothing happens if it has already run.
+         */
+        public void cancel() {
+            if (wheel != null) {
+                wheel.unlink(this);
+            }
+        }
+
+        /**
+         * @return True if the timer hasn't run or been cancelled yet.
+         */
+        public boolean isPending() { return wheel != null; }
+    }
+
+    // The first timer of every slot of every wheel
+    private Timer[][] slots;
+    // Length of a step (ms), timers are rounded up to whole steps
+    private int stepLength;
+    // The last step that has been run, and the time the wheel has been advanced to (ms)
+    private long step;
+    private long time;
+    private int pending;
+
+    /**
+     * Constructor of the TimerWheel class.
+     *
+     * @param startTime The time the wheel starts at (ms).
+     * @param stepLength Length of a step (ms), how precise the timers are.
+     */
+    public TimerWheel(long startTime, int stepLength) {
+        this.stepLength = stepLength;
+        slots = new Timer[LEVELS][SLOTS];
+        time = startTime;
+        step = startTime / stepLength;
+        pending = 0;
+    }
+
+    /**
+     * Method used to run a callback after a delay.
+     *
+     * @param delay How long until the callback runs (ms), it runs when the wheel is next
+     *              advanced if the delay is 0 or less.
+     * @param callback What to run.
+     * @return The timer, used to cancel it.
+     */
+    public Timer schedule(long delay, Runnable callback) {
+        return scheduleAt(time + delay, callback);
+    }
+
+    /**
+     * Method used to run a callback at a time.
+     *
+     * @param dueTime When the callback runs (ms), it runs when the wheel is next advanced if the
+     *                time has already passed.
+     * @param callback What to run.
+     * @return The timer, used to cancel it.
+     */
+    public Timer scheduleAt(long dueTime, Runnable callback) {
+        // The first step at or after the time, and never a step that has already been run
+        long dueStep = Math.max(step + 1, (dueTime + stepLength - 1) / stepLength);
+        Timer timer = new Timer(callback, dueStep);
+        link(timer);
+        pending++;
+        return timer;
+    }
+
+    /**
+     * Method used to move the wheel forward, running the timers that become due in the order
+     * they are due.
+     *
+     * @param delta How far to move the wheel (ms).
+     */
+    public void advance(long delta) {
+        advanceTo(time + delta);
+    }
+
+    /**
+     * Method used to move the wheel forward to a time, running the timers that become due in the
+     * order they are due.
+     *
+     * @param newTime The time to move the wheel to (ms), nothing happens if it has passed.
+     */
+    public void advanceTo(long newTime) {
+        if (newTime <= time) {
+            return;
+        }
+        time = newTime;
+        long lastStep = newTime / stepLength;
+        while (step < lastStep) {
+            // Nothing can become due, so there is no need to go through the steps
+            if (pending == 0) {
+                step = lastStep;
+                return;
+            }
+            step++;
+            // Move the timers of the higher wheels down when their slot comes up
+            for (int level = 1; level < LEVELS
+                    && (step & ((1L << (SLOT_BITS * level)) - 1)) == 0; level++) {
+                cascade(level, (int)((step >> (SLOT_BITS * level)) & SLOT_MASK));
+            }
+            runSlot((int)(step & SLOT_MASK));
+        }
+    }
+
+    /**
+     * @return The time the wheel has been advanced to (ms).
+     */
+    public long getTime() { return time; }
+
+    /**
+     * @return The number of timers waiting to run.
+     */
+    public int getPendingCount() { return pending; }
+
+    /**
+     * Runs the timers in a slot of the first wheel, which are all due at the current step.
+     * Timers scheduled by the callbacks are never due at the current step, so they are not run.
+     *
+     * @param slot Index of the slot.
+     */
+    private void runSlot(int slot) {
+        while (slots[0][slot] != null) {
+            Timer timer = slots[0][slot];
+            unlink(timer);
+            timer.callback.run();
+        }
+    }
+
+    /**
+     * Moves the timers in a slot of a higher wheel down to the wheel they belong in now.
+     *
+     * @param level Index of the wheel.
+     * @param slot Index of the slot.
+     */
+    private void cascade(int level, int slot) {
+        Timer timer = slots[level][slot];
+        slots[level][slot] = null;
+        while (timer != null) {
+            Timer next = timer.next;
+            link(timer);
+            timer = next;
+        }
+    }
+
+    /**
+     * Puts a timer in the slot it belongs in, the lowest wheel that reaches its step.
+     *
+     * @param timer The timer.
+     */
+    private void link(Timer timer) {
+        long stepsLeft = timer.dueStep - step;
+        int level = 0;
+        while (level < LEVELS - 1 && stepsLeft >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        // Timers further away than the last wheel reaches wait in its furthest slot
+        long slotStep = Math.min(timer.dueStep, step + (1L << (SLOT_BITS * LEVELS)) - 1);
+        int slot = (int)((slotStep >> (SLOT_BITS * level)) & SLOT_MASK);
+
+        timer.wheel = this;
+        timer.previous = null;
+        timer.next = slots[level][slot];
+        if (timer.next != null) {
+            timer.next.previous = timer;
+        }
+        slots[level][slot] = timer;
+        timer.level = level;
+        timer.slot = slot;
+    }
+
+    /**
+     * Takes a timer out of its slot, it won't run.
+     *
+     * @param timer The timer.
+     */
+    private void unlink(Timer timer) {
+        if (timer.previous != null) {
+            timer.previous.next = timer.next;
+        } else {
+            slots[timer.level][timer.slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.previous = timer.previous;
+        }
+        timer.previous = null;
+        timer.next = null;
+        timer.wheel = null;
+        pending--;
+    }
+}
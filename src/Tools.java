@@ -9,8 +9,8 @@ import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
 
 /**
  * Contains static methods like generating animations and such
@@ -18,65 +18,129 @@ import java.util.ArrayList;
  * @version 0.1
  */
 public class Tools {
+    // If true, nothing that needs a display (images, fonts) is created
+    private static boolean headless = false;
+    // The asset names of the characters, by character name
+    private static HashMap<String, String> characterAssetNames = new HashMap<>();
 
     /**
+     * Sets the game to run without a display, animations are created without frames and
+     * entities without fonts. Must be set before the world is created.
+     * @param value True to run without a display
+     */
+    public static void setHeadless(boolean value) { headless = value; }
+
+    /**
+     * @return True if the game is running without a display
+     */
+    public static boolean isHeadless() { return headless; }
+
+    /**
+     * Creates the animations of an entity. The frames are shared through the AssetCache with
+     * every other entity of the same type and name, only the playback state is per animation.
+     * The frames must be given back with releaseAnimation when the entity is gone.
      * @param type Type of the animation, i.e "character"
      * @param name Name of the thing to be animated
      * @return An ArrayList of Animation objects with the indexes 0: "up", 1: "down", 2: "left", 3: "right"
+     * (without frames if headless)
      * @throws SlickException
      */
     public static ArrayList<Animation> createAnimation(String type, String name)
             throws SlickException {
         ArrayList<Animation> animationArray = new ArrayList<>();
-        ArrayList<String> keyWords = new ArrayList<>();
-        String pathToFolder = "res/";
+        String assetName = getAssetName(type, name);
+        String pathToFolder = getAssetFolder(type, assetName);
 
-        // If it's an item animation the keywords should be it's directions and the folder
-        // "res/items/"
-        if (type.equals("item")) {
-            keyWords.add(name);
-            pathToFolder += "items/";
+        for (String keyWord : getKeyWords(type, assetName)) {
+            Animation animation = new Animation();
+            // Animations are moved forward by the game ticks, never by the wall clock
+            animation.setAutoUpdate(false);
+            // Frames are named [IMAGE NAME]-1.png, [IMAGE NAME]-2.png and so on
+            Image[] frames = AssetCache.acquire(type + ":" + assetName + ":" + keyWord,
+                    pathToFolder + keyWord);
+            // Every frame is shown as long as the manifest says, or 100 ms if it isn't listed
+            int[] durations = AssetManifest.getFrameDurations(pathToFolder + keyWord);
+            for (int i = 0; i < frames.length; i++) {
+                animation.addFrame(frames[i], durations != null && i < durations.length
+                        ? durations[i] : AssetManifest.DEFAULT_FRAME_DURATION);
+            }
+            // Adds the created animation to the array of animations
+            animationArray.add(animation);
         }
+        return animationArray;
+    }
 
-        // If it's a character animation the keywords should be it's directions and the folder
-        // "res/characters/"
+    /**
+     * Gives back the frames of animations created with createAnimation
+     * @param type Type of the animation, i.e "character"
+     * @param name Name of the thing that was animated
+     * @throws SlickException
+     */
+    public static void releaseAnimation(String type, String name) throws SlickException {
+        String assetName = getAssetName(type, name);
+        for (String keyWord : getKeyWords(type, assetName)) {
+            AssetCache.release(type + ":" + assetName + ":" + keyWord);
+        }
+    }
+
+    /**
+     * @param type Type of the animation, i.e "character"
+     * @param name Name of the thing to be animated
+     * @return The name the images are stored under, characters with a number (enemy1, enemy2)
+     * share the images of the character without the number
+     */
+    public static String getAssetName(String type, String name) {
         if (type.equals("character")) {
-            name = name.replaceAll("\\d", "");
-            String[] directions = {"up", "down", "left", "right"};
-            for (String direction : directions) {
-                keyWords.add(direction);
+            // Only worked out once per character name
+            String assetName = characterAssetNames.get(name);
+            if (assetName == null) {
+                assetName = name.replaceAll("\\d", "");
+                characterAssetNames.put(name, assetName);
             }
-            pathToFolder += "characters/" + name + "/";
-        }
-        // If it's a projectile animation the folder is "res/projectiles/[NAME]"
-        // and the keyword is it's name
-        else if (type.equals("projectile")) {
-            keyWords.add(name);
-            keyWords.add("hit");
-            pathToFolder += "projectiles/" + name + "/";
+            return assetName;
         }
+        return name;
+    }
 
-        for (String keyWord : keyWords) {
-            Animation animation = new Animation();
-
-            // Generate a path to the image file to be added to the animation, loops through the files from
-            // [IMAGE NAME]-1.png until it hits a file that doesn't exist (then next keyWord)
-            int i = 1;
-            String path = pathToFolder + keyWord + "-" + i + ".png";
-            File file = new File(path);
-            // While there is another file matching the pattern, add frame to animation
-            while (file.exists()) {
-                animation.addFrame(new Image(path), 100);
+    /**
+     * @param type Type of the animation, i.e "character"
+     * @param assetName Name the images are stored under
+     * @return The folder of the images
+     */
+    private static String getAssetFolder(String type, String assetName) {
+        // Items are in "res/items/", characters in "res/characters/[NAME]/" and projectiles
+        // in "res/projectiles/[NAME]/"
+        if (type.equals("item")) {
+            return "res/items/";
+        } else if (type.equals("character")) {
+            return "res/characters/" + assetName + "/";
+        } else if (type.equals("projectile")) {
+            return "res/projectiles/" + assetName + "/";
+        }
+        return "res/";
+    }
 
-                // Increase i by one and check for next file
-                i++;
-                path = pathToFolder + keyWord + "-" + i + ".png";
-                file = new File(path);
+    /**
+     * @param type Type of the animation, i.e "character"
+     * @param assetName Name the images are stored under
+     * @return The keywords of the animations, in the order of the animation array
+     */
+    private static ArrayList<String> getKeyWords(String type, String assetName) {
+        ArrayList<String> keyWords = new ArrayList<>();
+        // An item has one animation named after it, a character one per direction and a
+        // projectile one named after it and one for when it hits
+        if (type.equals("item")) {
+            keyWords.add(assetName);
+        } else if (type.equals("character")) {
+            String[] directions = {"up", "down", "left", "right"};
+            for (String direction : directions) {
+                keyWords.add(direction);
             }
-            // Adds the created animation to the array of animations
-            animationArray.add(animation);
+        } else if (type.equals("projectile")) {
+            keyWords.add(assetName);
+            keyWords.add("hit");
         }
-        return animationArray;
+        return keyWords;
     }
 
     /**
@@ -111,39 +175,6 @@ public class Tools {
         }
     }
 
-    /**
-     * Creates a freeze animation for a character
-     * @param animationArray The animationArray of the character
-     * @param direction The direction the character should face
-     * @return The freeze animation
-     */
-    public static Animation getFreezeAnimation(
-            ArrayList<Animation> animationArray,  String direction) {
-        Image freezeImage;
-        // Select the image according to the way the character is facing
-        switch (direction) {
-            case "up":
-                freezeImage = animationArray.get(0).getImage(0);
-                break;
-            case "down":
-                freezeImage = animationArray.get(1).getImage(0);
-                break;
-            case "left":
-                freezeImage = animationArray.get(2).getImage(0);
-                break;
-            case "right":
-                freezeImage = animationArray.get(3).getImage(0);
-                break;
-            default:
-                freezeImage = animationArray.get(0).getImage(0);
-                break;
-        }
-        // Add the freezeImage to the animation and return it
-        Animation freezeAnimation = new Animation();
-        freezeAnimation.addFrame(freezeImage, 100);
-        return freezeAnimation;
-    }
-
     /**
      * Returns the way two characters should be facing while in dialogue
      * @param first The rectangle of the first character
@@ -172,34 +203,4 @@ public class Tools {
         }
         return returnArray;
     }
-
-    /**
-     * Reads a setting file and returns the requested value
-     * @param filePath The path of the file to be read
-     * @param key The name of the field that should be returned
-     * @return The requested value
-     */
-    public static int readSettings(String filePath, String key) {
-        ArrayList<String> settingsArray = readFileToArray(filePath);
-        // Loop through the setting and look for the required key
-        for (String line : settingsArray) {
-            String[] splitLine = line.split("=");
-            if (splitLine[0].equals(key)) {
-                return Integer.parseInt(splitLine[1]);
-            }
-        }
-        return 0;
-    }
-
-    /**
-     * Reads a setting file and returns the requested value
-     * @param filePath The path of the file to be read
-     * @param key The name of the field that should be returned
-     * @return The requested value
-     */
-    public static String[] getWinCondition(String filePath) {
-        ArrayList<String> winArray = readFileToArray(filePath);
-        // Look at index zero, which is the win condition - ignore other rows
-        return winArray.get(0).split(" ");
-    }
 }
@@ -2,7 +2,6 @@ import org.newdawn.slick.*;
 import org.newdawn.slick.geom.Rectangle;
 
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.HashMap;
 
 /**
@@ -15,10 +14,27 @@ public class World {
     // The player object
     private Player player;
 
-    // Variables for rooms
+    // Variables for rooms, rooms are built the first time they are needed
     private Room currentRoom;
     private HashMap<String, Room> rooms;
 
+    // The cutscene character of every room in rooms.txt ("" if none)
+    private HashMap<String, String> cutsceneCharacters;
+
+    // Reads the maps of the rooms next to the current room in the background
+    private RoomLoader roomLoader;
+
+    // The camera, following the player
+    private Camera camera;
+
+    // Buffers for the results of range queries around the player
+    private ArrayList<Item> itemsInRange;
+    private ArrayList<Character> charactersInRange;
+    private ArrayList<Exit> intersectedExits;
+
+    // Collects the sprites of a frame and draws them batched by texture
+    private RenderQueue renderQueue;
+
     // Debugging variable
     private boolean debug;
 
@@ -31,53 +47,168 @@ public class World {
      * @throws SlickException Generic exception
      */
     public World(GameState gameState) throws SlickException {
+        this(gameState, new RoomLoader());
+    }
+
+    /**
+     * Constructor for the World class, with a room loader that may have started reading the
+     * rooms already
+     * @param gameState The GameState object
+     * @param roomLoader The room loader reading the maps of the rooms
+     * @throws SlickException Generic exception
+     */
+    public World(GameState gameState, RoomLoader roomLoader) throws SlickException {
         // Get the GameState object
         this.gameState = gameState;
 
+        // The simulation starts at time zero, so replaying the same input gives the same world
+        GameClock.reset();
+        EntityRegistry.reset();
+
         // The player object, takes parameters: width, height, speed, radius of range
         player = new Player(new Rectangle(Core.WIDTH/2 - 8, Core.HEIGHT/2 - 8, 16, 16), 0.2f, 48);
 
-        // Add rooms to HashMap rooms and set the starting room to current room
-        rooms = generateRoomHashMap();
+        // The camera keeps the player in the middle of the screen
+        camera = new Camera(player.getRect().getX(), player.getRect().getY(),
+                Core.WIDTH, Core.HEIGHT);
+
+        itemsInRange = new ArrayList<>();
+        charactersInRange = new ArrayList<>();
+        intersectedExits = new ArrayList<>();
+
+        // Read the list of rooms and build the starting room, the rest are built when needed
+        rooms = new HashMap<>();
+        this.roomLoader = roomLoader;
+        currentRoom = getRoom(readRoomList());
+        prefetchNeighbours();
+
+        renderQueue = new RenderQueue(new SlickSpriteRenderer());
 
         // The debug variable
         debug = false;
     }
 
     /**
-     * Generates a HashMap of the rooms in the rooms.txt-file
-     * @return A HashMap of the rooms
-     * @throws SlickException Generic exception
+     * Reads the rooms.txt-file, with the name of every room and who to be in cutscene with
+     * @return The name of the first room, where the game starts
      */
-    private HashMap<String,Room> generateRoomHashMap() throws SlickException {
-        HashMap<String, Room> returnMap = new HashMap<>();
+    private String readRoomList() {
+        cutsceneCharacters = new HashMap<>();
 
         // Reads the rooms.txt-file and loops through the lines
         ArrayList<String> roomsFile = Tools.readFileToArray("res/rooms/rooms.txt");
         for (String line : roomsFile) {
             // Split the string up by the space, dividing up name and who to be in cutscene with
             String[] nameAndCutscene = line.split(" ");
+            cutsceneCharacters.put(nameAndCutscene[0],
+                    nameAndCutscene.length > 1 ? nameAndCutscene[1] : "");
+        }
+        // Take the first line as the first room
+        return roomsFile.get(0).split(" ")[0];
+    }
+
+    /**
+     * @return The name of the room the game starts in, the first room in the rooms.txt-file
+     */
+    public static String getStartRoomName() {
+        return getRoomNames().get(0);
+    }
 
-            // Adds the path to the room to the HashMap
-            returnMap.put(nameAndCutscene[0], new Room(
-                    "res/rooms/" + nameAndCutscene[0] + ".tmx", nameAndCutscene[0]));
+    /**
+     * @return The names of every room in the rooms.txt-file
+     */
+    public static ArrayList<String> getRoomNames() {
+        ArrayList<String> roomNames = new ArrayList<>();
+        for (String line : Tools.readFileToArray("res/rooms/rooms.txt")) {
+            roomNames.add(line.split(" ")[0]);
+        }
+        return roomNames;
+    }
 
+    /**
+     * Gets a room, building it the first time it is needed. The map is taken from the room
+     * loader, which has usually read it in the background already. The tile set images are
+     * loaded as well, unless running without a display
+     * @param name Name of the room
+     * @return The room
+     * @throws SlickException If the room can't be loaded
+     */
+    private Room getRoom(String name) throws SlickException {
+        Room room = rooms.get(name);
+        if (room == null) {
+            room = new Room(roomLoader.take(name), name, player.getId());
             // If there's someone to be in cutscene with, set that character to the room
-            if (nameAndCutscene.length > 1) {
-                returnMap.get(nameAndCutscene[0]).setCutsceneCharacter(nameAndCutscene[1]);
+            String cutsceneCharacter = cutsceneCharacters.get(name);
+            if (cutsceneCharacter != null && !cutsceneCharacter.equals("")) {
+                room.setCutsceneCharacter(cutsceneCharacter);
+            }
+            if (!Tools.isHeadless()) {
+                room.prepareRenderer();
+            }
+            rooms.put(name, room);
+            // When every room is built, the images loaded ahead of time that no room asked for
+            // are never used
+            if (rooms.size() == cutsceneCharacters.size()) {
+                AssetCache.clearPreloaded();
+            }
+        }
+        return room;
+    }
+
+    /**
+     * Starts reading the maps of the rooms the exits of the current room lead to
+     */
+    private void prefetchNeighbours() {
+        for (Exit exit : currentRoom.getExits()) {
+            if (!rooms.containsKey(exit.getDestination())) {
+                roomLoader.prefetch(exit.getDestination());
+            }
+        }
+    }
+
+    /**
+     * Builds one room next to the current room whose map has been read in the background, so
+     * the room is ready when the player walks through the exit
+     * @throws SlickException If the room can't be built
+     */
+    private void buildPrefetchedRoom() throws SlickException {
+        for (Exit exit : currentRoom.getExits()) {
+            String destination = exit.getDestination();
+            if (!rooms.containsKey(destination) && roomLoader.isReady(destination)) {
+                getRoom(destination);
+                return;
             }
         }
-        // Take the first line and set it as the first room
-        currentRoom = returnMap.get(roomsFile.get(0).split(" ")[0]);
-        return returnMap;
+    }
+
+    /**
+     * Applies the settings that have changed while the game is running. The win condition is
+     * read from the settings every time a character dies, so it needs nothing here
+     * @param settings The new settings
+     */
+    public void applySettings(Settings settings) {
+        player.getInventory().setCapacity(settings.getInventoryCapacity());
+        // Debug mode is turned off if it isn't allowed anymore
+        if (!settings.isDebugEnabled()) {
+            debug = false;
+        }
     }
 
     /**
      * Updates the world, like entity positions
+     * @param input The source of the key presses
      * @param delta Amount of time that has passed since last updateGraphics (ms)
      * @throws SlickException Generic exception
      */
-    public void updateWorld(GameContainer gameContainer, int delta) throws SlickException {
+    public void updateWorld(InputSource input, int delta) throws SlickException {
+        // Move the clock forward and read the keys for this tick
+        GameClock.advance(delta);
+        input.poll(delta);
+
+        // Save where everything was at the start of the tick, for render interpolation
+        player.savePreviousLocation();
+        currentRoom.savePreviousLocations();
+
         // Check for cutscene
         triggerCutscene();
 
@@ -85,11 +216,15 @@ public class World {
         player.setFrozen(true);
 
         // Checks for key presses
-        checkKeyPresses(gameContainer, delta);
+        checkKeyPresses(input, delta);
+        player.updateAnimation(delta);
 
         // Checks if the player has intersected any exits
         checkIntersectedExit();
 
+        // Build a room next to this one if its map is ready, at most one per tick
+        buildPrefetchedRoom();
+
         // Freeze or unfreeze the entities of the world depending on the game state
         if (gameState.getCurrentState().equals("default")) {
             currentRoom.freezeEntities(false);
@@ -106,57 +241,57 @@ public class World {
 
     /**
      * Checks for key presses and executes commands accordingly
-     * @param gameContainer GameContainer object handling game loop etc
+     * @param input The source of the key presses
      * @param delta Amount of time that has passed since last updateGraphics (ms)
      * @throws SlickException Generic exception
      */
-    public void checkKeyPresses(GameContainer gameContainer, int delta) throws SlickException {
+    public void checkKeyPresses(InputSource input, int delta) throws SlickException {
         if (gameState.getCurrentState().equals("default")) {
             // If the GameState is default, check for movement key presses
-            keyMovement(gameContainer, delta);
+            keyMovement(input, delta);
         } else if (gameState.getCurrentState().equals("inventory")) {
             // If the GameState is inventory, check for inventory navigation key presses
-            keyInventory(gameContainer);
+            keyInventory(input);
         }
 
         // Check action key presses
-        keyActions(gameContainer, delta);
+        keyActions(input, delta);
     }
 
     /**
      * Checks for movement key presses
-     * @param gameContainer GameContainer object handling game loop etc
+     * @param input The source of the key presses
      * @param delta Amount of time that has passed since last updateGraphics (ms)
      * @throws SlickException Generic exception
      */
-    public void keyMovement(GameContainer gameContainer, int delta) throws SlickException {
-        if (gameContainer.getInput().isKeyDown(Input.KEY_UP)) {
+    public void keyMovement(InputSource input, int delta) throws SlickException {
+        if (input.isKeyDown(Input.KEY_UP)) {
             movement("up", delta);
         }
-        if (gameContainer.getInput().isKeyDown(Input.KEY_DOWN)) {
+        if (input.isKeyDown(Input.KEY_DOWN)) {
             movement("down", delta);
         }
-        if (gameContainer.getInput().isKeyDown(Input.KEY_LEFT)) {
+        if (input.isKeyDown(Input.KEY_LEFT)) {
             movement("left", delta);
         }
-        if (gameContainer.getInput().isKeyDown(Input.KEY_RIGHT)) {
+        if (input.isKeyDown(Input.KEY_RIGHT)) {
             movement("right", delta);
         }
     }
 
     /**
      * Checks for key presses for navigation of the inventory
-     * @param gameContainer GameContainer object handling game loop etc
+     * @param input The source of the key presses
      */
-    private void keyInventory(GameContainer gameContainer) {
+    private void keyInventory(InputSource input) {
         // Move up if there is an item above to mark
-        if (gameContainer.getInput().isKeyPressed(Input.KEY_UP) &&
+        if (input.isKeyPressed(Input.KEY_UP) &&
                 player.getInventory().getInventorySelectedItemNumber() > 0) {
             player.getInventory().decreaseInventorySelectedItemNumber();
         }
 
         // Move down if there is an item below to mark
-        if (gameContainer.getInput().isKeyPressed(Input.KEY_DOWN)) {
+        if (input.isKeyPressed(Input.KEY_DOWN)) {
             if (player.getInventory().getInventorySelectedItemNumber()
                     < player.getInventory().getNumberOfItems()-1) {
                 player.getInventory().increaseInventorySelectedItemNumber();
@@ -164,7 +299,7 @@ public class World {
         }
 
         // Drops items from inventory
-        if (gameContainer.getInput().isKeyPressed(Input.KEY_A)) {
+        if (input.isKeyPressed(Input.KEY_A)) {
             Item drop = player.removeFromInventory(
                     player.getInventory().getInventorySelectedItemNumber());
             if (drop != null) {
@@ -187,14 +322,14 @@ public class World {
 
     /**
      * Handles action keys, like picking up items and such
-     * @param gameContainer GameContainer object handling game loop etc
+     * @param input The source of the key presses
      * @param delta Amount of time that has passed since last updateGraphics (ms)
      * @throws SlickException Generic exception
      */
-    private void keyActions(GameContainer gameContainer, int delta) throws SlickException {
+    private void keyActions(InputSource input, int delta) throws SlickException {
         // Adds items in range to inventory if player is carrying less than allowed amount of items
-        if (gameContainer.getInput().isKeyPressed(Input.KEY_SPACE)) {
-            for (Item item : player.getItemsInRange(currentRoom.getItems())) {
+        if (input.isKeyPressed(Input.KEY_SPACE)) {
+            for (Item item : player.getItemsInRange(currentRoom.getItemIndex(), itemsInRange)) {
                 if (player.tryAddToInventory(item)) {
                     currentRoom.removeItem(item);
                 }
@@ -202,18 +337,17 @@ public class World {
         }
 
         // Opens/closes inventory
-        if (gameContainer.getInput().isKeyPressed(Input.KEY_I)) {
+        if (input.isKeyPressed(Input.KEY_I)) {
             player.getInventory().resetInventorySelectedItemNumber();
             gameState.toggleInventory();
             player.setFrozen(gameState.getCurrentState().equals("inventory"));
         }
 
         // Shoots fireball
-        if (gameContainer.getInput().isKeyPressed(Input.KEY_M)) {
+        if (input.isKeyPressed(Input.KEY_M) && gameState.getCurrentState().equals("default")
+                && player.getInventory().checkIfInventoryContains("Fireball")) {
             for (Projectile projectile : currentRoom.getProjectiles()) {
-                if (!projectile.isShot() && gameState.getCurrentState().equals("default")
-                        && projectile.getBelongsTo().equals("player")
-                        && player.getInventory().checkIfInventoryContains("Fireball")) {
+                if (!projectile.isShot() && projectile.getOwnerId() == player.getId()) {
                     projectile.shoot(player.getRect().getCenterX(), player.getRect().getCenterY(),
                             player.getLastDirection());
                 }
@@ -221,10 +355,10 @@ public class World {
         }
 
         // Engage in dialogue
-        if (gameContainer.getInput().isKeyPressed(Input.KEY_D)) {
+        if (input.isKeyPressed(Input.KEY_D)) {
             // Get character in range to engage in dialogue with
-            Character intersectedCharacter =
-                    player.getCharacterInRange(currentRoom.getCharacters());
+            Character intersectedCharacter = player.getCharacterInRange(
+                    currentRoom.getCharacterIndex(), charactersInRange);
 
             // If there was a character in range and the GameState
             if (gameState.getCurrentState().equals("default")
@@ -232,7 +366,7 @@ public class World {
                 // Toggle dialogue GameSate and put player in dialogue with the character
                 gameState.setDialogueMode(true);
                 Character inDialogueWith = intersectedCharacter;
-                inDialogueWith.setInDialogue(true);
+                inDialogueWith.startDialogue(player);
                 player.setInDialogueWith(inDialogueWith);
             } else if (gameState.getCurrentState().equals("dialogue")) {
                 // If there is more dialogue, display the next thing the character says
@@ -240,7 +374,7 @@ public class World {
                     if (character.getInDialogue()) {
                         if (!character.increaseDialogueIndex()) {
                             gameState.setDialogueMode(false);
-                            character.setInDialogue(false);
+                            character.endDialogue(player);
 
                             // When done with dialogue, set in dialogue with to null
                             player.setInDialogueWith(null);
@@ -254,82 +388,68 @@ public class World {
         }
 
         // Toggle debugging mode
-        if (gameContainer.getInput().isKeyPressed(Input.KEY_P) && Core.DEBUG_ENABLED == 1) {
+        if (input.isKeyPressed(Input.KEY_P) && Settings.get().isDebugEnabled()) {
             debug = !debug;
         }
 
-        if (gameContainer.getInput().isKeyPressed(Input.KEY_S) && debug) {
+        if (input.isKeyPressed(Input.KEY_S) && debug) {
             player.takeDamage(100);
         }
     }
 
     /**
-     * Handles the player movement, or rather the movement of the world itself
+     * Handles the player movement, the camera follows the player
      * @param direction The direction the player should be moving
      */
     private void movement(String direction, int delta) throws SlickException {
-        double xMovement = 0;
-        double yMovement = 0;
+        float xMovement = 0;
+        float yMovement = 0;
         switch (direction) {
             case "up":
-                yMovement = player.getSpeed() * delta;
+                yMovement = -player.getSpeed() * delta;
                 break;
             case "down":
-                yMovement = -player.getSpeed() * delta;
+                yMovement = player.getSpeed() * delta;
                 break;
             case "left":
-                xMovement = player.getSpeed() * delta;
+                xMovement = -player.getSpeed() * delta;
                 break;
             case "right":
-                xMovement = -player.getSpeed() * delta;
+                xMovement = player.getSpeed() * delta;
                 break;
             default:
                 break;
         }
         player.setLastDirection(direction);
         // Check if the movement will create any intersections with blocks
-        ArrayList<Rectangle> newBlocks = isBlocked(xMovement, yMovement);
-        if (newBlocks != null) {
+        if (!currentRoom.isBlocked(player.getRect(), xMovement, yMovement)) {
             player.setFrozen(false);
-            currentRoom.updateRectangles(xMovement, yMovement, newBlocks);
+            player.move(xMovement, yMovement);
         }
     }
 
     /**
-     * Returns a list of blocks with updated locations if they don't intersect with the player
-     * @param xMovement The amount of movement in x direction
-     * @param yMovement The amount of movement in y direction
-     * @return List of blocks
+     * Checks if the player has intersected any exits and changes the room if that is the case
+     * @throws SlickException If the room the exit leads to can't be loaded
      */
-    private ArrayList<Rectangle> isBlocked(double xMovement, double yMovement) {
-        // Create a copy of the Blocks ArrayList
-        ArrayList<Rectangle> newBlocks = new ArrayList<>();
-        for (Rectangle block : currentRoom.getBlocks()) {
-            newBlocks.add(new Rectangle(block.getX(), block.getY(), block.getWidth(), block.getHeight()));
-        }
-
-        // Updates blocks in newBlocks and checks if it intersects with player
-        for (Rectangle block : newBlocks) {
-            block.setX(block.getX() + (float)xMovement);
-            block.setY(block.getY() + (float)yMovement);
-            if (player.getRect().intersects(block)) {
-                return null;
-            }
+    public void checkIntersectedExit() throws SlickException {
+        Exit exit = player.getIntersectedExit(currentRoom.getExitIndex(), intersectedExits);
+        if (exit != null) {
+            // The room is usually built already, since its map was read in the background
+            currentRoom = getRoom(exit.getDestination());
+            prefetchNeighbours();
+            // Reposition the camera at the spawn location and put the player under it
+            camera.setOffset(exit.getSpawnX(), exit.getSpawnY());
+            player.setLocation(camera.getAnchorWorldX(), camera.getAnchorWorldY());
+            player.savePreviousLocation();
+            currentRoom.setEnterTime(GameClock.getTime());
         }
-        return newBlocks;
     }
 
     /**
-     * Checks if the player has intersected any exits and changes the room if that is the case
+     * @return Return the room the player is in
      */
-    public void checkIntersectedExit() {
-        Exit exit = player.getIntersectedExit(currentRoom.getExits());
-        if (exit != null) {
-            currentRoom = rooms.get(exit.getDestination());
-            currentRoom.updateSpawnOffset(exit.getSpawnX(), exit.getSpawnY());
-            currentRoom.setEnterTime(new Date().getTime());
-        }
-    }
+    public Room getCurrentRoom() { return currentRoom; }
 
     /**
      * @return Return player object
@@ -337,38 +457,61 @@ public class World {
     public Player getPlayer() { return player; }
 
     /**
-     * Updates the graphics of the game world
+     * Updates the graphics of the game world, interpolating between the previous and the
+     * current tick
      * @param graphics Graphics component used to draw
+     * @param alpha How far into the next tick the frame is rendered (0 to 1)
+     * @throws SlickException If the map can't be drawn
      */
-    public void updateGraphics(Graphics graphics) {
-        // Draw the world, renders the world on the top left collision block
-        currentRoom.render(
-                currentRoom.getBlocks().get(0).getX(), currentRoom.getBlocks().get(0).getY());
-
-        // Draw the player animation
-        player.getAnimation(player).draw(player.getRect().getX()
-                        +(player.getRect().getWidth()-player.getAnimation(player).getCurrentFrame().getWidth())/2,
-                player.getRect().getY()
-                        +(player.getRect().getHeight()-player.getAnimation(player).getCurrentFrame().getHeight())/2);
-
-        // Render the entities (characters, items, projectiles) in room
-        currentRoom.renderEntities(graphics, player, gameState);
-
-        // Draw the players health
-        player.drawHealth();
+    public void updateGraphics(Graphics graphics, float alpha) throws SlickException {
+        // Everything in the room is drawn in world coordinates, the camera follows the player
+        float playerX = player.getRenderX(alpha);
+        float playerY = player.getRenderY(alpha);
+        camera.follow(playerX, playerY);
+        camera.apply(graphics);
+
+        // Draw the world
+        currentRoom.render(camera);
+
+        // Submit the player and the entities (characters, items, projectiles) in room, then
+        // draw them sorted by layer and texture
+        renderQueue.resetCounts();
+        player.renderCharacter(renderQueue, RenderQueue.LAYER_PLAYER, player, alpha);
+        currentRoom.renderEntities(renderQueue, player, alpha, camera);
+        renderQueue.flush();
+
+        // Draw the text on top, the dialogue and health of the characters and the players health
+        currentRoom.renderEntityText(graphics, alpha);
+        player.drawHealth(alpha);
 
         // Highlight items in player range
         currentRoom.highlightItems(player.getRange());
 
-        // Draw inventory depending of if inventory is open
-        if (gameState.getCurrentState().equals("inventory")) {
-            player.getInventory().drawInventory(graphics);
-        }
-
         // If debug is set to true, run the debugging method
         if (debug) {
             runDebug(graphics);
         }
+
+        // The inventory is drawn on the screen, not in the world
+        camera.reset(graphics);
+
+        // Show how much of the room was drawn
+        if (debug) {
+            graphics.setColor(Color.white);
+            graphics.drawString("Tiles: " + currentRoom.getTilesDrawn()
+                    + "  Entities drawn: " + currentRoom.getEntitiesDrawn()
+                    + "  culled: " + currentRoom.getEntitiesCulled(), 10, 30);
+            graphics.drawString("Sprites: " + renderQueue.getSpritesDrawn()
+                    + "  Draw calls: " + renderQueue.getBatches()
+                    + "  Texture binds: " + renderQueue.getBinds(), 10, 50);
+            graphics.drawString("Blocks: " + currentRoom.getBlocks().size()
+                    + "  Blocked tiles: " + currentRoom.getBlockedTileCount(), 10, 70);
+        }
+
+        // Draw inventory depending of if inventory is open
+        if (gameState.getCurrentState().equals("inventory")) {
+            player.getInventory().drawInventory(graphics, renderQueue);
+        }
     }
 
     /**
@@ -402,8 +545,8 @@ public class World {
             // If not in dialogue, prints the top left corner coordinates. This makes it easier
             // to place world objects and exits in the right positions when creating worlds
             System.out.println("Top left corner coordinates  | "
-                    + " x: " + currentRoom.getOffset()[0]
-                    + " y: " + currentRoom.getOffset()[1]);
+                    + " x: " + camera.getXOffset()
+                    + " y: " + camera.getYOffset());
         }
     }
 
@@ -417,7 +560,7 @@ public class World {
             // Put the Character that the cutscene refers to as in dialogue with the player
             Character inDialogueWith = currentRoom.getCharacterByName(
                     currentRoom.getCutsceneCharacter());
-            inDialogueWith.setInDialogue(true);
+            inDialogueWith.startDialogue(player);
             player.setInDialogueWith(inDialogueWith);
 
             // Resets cutscene character in the room, so the cutscene isn't retriggered